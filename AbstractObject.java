@@ -13,6 +13,8 @@ public abstract class AbstractObject {
     protected double x;		// x-coordinate of the object
     protected double y;		// y-coordinate of the object
     protected double radius; //radius of the object
+    int id = 0;		// Stable id assigned by the arena, 0 until the object is added
+    int index = -1;	// Position in the arena's object list, -1 if not in an arena
 
    /**
     * Builds an AbstractObject with specific position and radius
@@ -28,6 +30,24 @@ public abstract class AbstractObject {
         this.radius = radius;
     }
 
+    /**
+     * Gives a recycled object a new position and size
+     * 
+     * Called when the object is taken out of the {@code ObjectPool}. The object
+     * loses its id so the arena treats it as a new object.
+     * 
+     * @param x The x-coordinate of object
+     * @param y The y-coordinate of object
+     * @param radius The radius of object
+     */
+    void reset(double x, double y, double radius) {
+        this.x = x;
+        this.y = y;
+        this.radius = radius;
+        this.id = 0;
+        this.index = -1;
+    }
+
     /**
      * Responsible for updating the status of the object
      * 
@@ -36,6 +56,18 @@ public abstract class AbstractObject {
      */
     public abstract void update();
 
+    /**
+     * Returns the stable id of the object
+     * 
+     * The id is assigned when the object is first added to an arena and never changes,
+     * so it can be used to refer to the object in logs, recordings and saved files.
+     * 
+     * @return The id of the object, or 0 if it was never added to an arena
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Returns x-coordinate of object
      * 
@@ -72,6 +104,25 @@ public abstract class AbstractObject {
      * @param gc GraphicsContext used to display the object
      */
     public abstract void render(javafx.scene.canvas.GraphicsContext gc);
+
+    /**
+     * Returns how far from its center {@link #render} draws, used for partial redraws.
+     *
+     * @return The distance from the center that contains everything the object draws.
+     */
+    public double getRenderRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the type and id of the object, e.g. {@code WhiskerRobot#12}
+     * 
+     * @return A short description of the object
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "#" + id;
+    }
     
     
     }
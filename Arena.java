@@ -1,7 +1,13 @@
 package Robot_Sim;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.Consumer;
 
 /**
  * The Arena class manages all objects and their interactions in the simulation environment.
@@ -14,8 +20,57 @@ import java.util.Random;
 
 public class Arena {
  private ArrayList<AbstractObject> objects; 	// List of every object in the arena
- private static final Random random = new Random();	// Instance for random generation
- private static Arena instance;
+ private List<AbstractObject> objectsView;	// Read-only view handed out by getObjects()
+ private final ObjectIndex index = new ObjectIndex();	// Id to object lookup
+ private final ObjectPool pool = new ObjectPool(4096);	// Recycled objects for the factories
+ private final Map<Class<?>, int[]> typeCounts = new HashMap<>();	// Number of objects per concrete type
+ private int robotsCount = 0;	// Kept up to date by insert/remove so the info panel does not scan the list
+ private int obstaclesCount = 0;
+ private int nextId = 1;	// Next id to hand out, 0 is reserved for "no id"
+ private Random random;	// Seeded instance for random generation, shared by every random decision
+ private long seed;		// Seed of the random generator, needed to replay a run
+ private long tick = 0;	// Number of completed updates
+ private SimulationRecorder recorder;	// Records editor actions, null if not recording
+ private final SimulationMetrics metrics = new SimulationMetrics(Boolean.getBoolean("robotsim.metrics"));	// Tick instrumentation, off unless -Drobotsim.metrics=true
+ private final SimulationEvents.TickEvent tickEvent = new SimulationEvents.TickEvent();		// Reused every tick, JFR events may be committed again after begin()
+ private final SimulationEvents.PhaseEvent phaseEvent = new SimulationEvents.PhaseEvent();	// Reused for every phase
+ private boolean eventDriven = Boolean.getBoolean("robotsim.eventDriven");	// Skip interaction phases for robots that cannot interact yet
+ private final EventQueue events = new EventQueue();	// Predicted interaction ticks of robots, used when event-driven
+ private final ArrayList<Robot> active = new ArrayList<>();	// Robots running the interaction phases in the current tick
+ private static final long ACTIVE = Long.MIN_VALUE;	// Prediction of a robot that is being checked in the current tick
+ private static final double SENSOR_MARGIN = 20;	// Longest obstacle sensor reach beyond the radii (BeamSensorRobot)
+ private static final int CROWDED_RETRY_INTERVAL = 16;	// Ticks between predictions while most robots are due every tick
+ private boolean crowded = false;	// Set while predictions are suspended because most robots are due every tick
+ private static final Comparator<Robot> BY_INDEX = Comparator.comparingInt(robot -> robot.index);
+ private final ArrayList<Robot> sleepers = new ArrayList<>();	// Robots skipped as initiators until something changes around them
+ private static final int SLEEP_AFTER = 30;	// Quiet checks before a robot falls asleep
+ private boolean logging = true;	// Print absorptions and teleports, turned off for sweeps
+ private final RadioNetwork radio = new RadioNetwork();	// Broadcasts between robots, delivered at the end of each tick
+ private final FlowFieldCache flowFields = new FlowFieldCache(500, 500);	// Flow fields of the goals robots navigate to
+ private final NeighbourGrid neighbourIndex = new NeighbourGrid(500, 500);	// Robots by position, for neighbour queries, rebuilt on demand
+ private final ControllerPhase controllers = new ControllerPhase(neighbourIndex);	// Runs the robots' controllers each tick
+ private MotionKernel kernel = MotionKernel.preferred();	// Movement and overlap math over packed arrays
+ private final PackedBodies movers = new PackedBodies();	// Robots moved by the kernel in the update phase
+ private final PackedBodies bodies = new PackedBodies();	// Obstacles and robots for the collision phase
+ private final PackedBodies holes = new PackedBodies();	// Black holes for the absorption phase
+ private final PackedBodies pads = new PackedBodies();	// Teleport pads for the teleport phase
+ private final HierarchicalGrid broadPhase = new HierarchicalGrid(500, 500, 8);	// Bodies by position and size, for large collision phases
+ private static final int BROAD_PHASE_THRESHOLD = 128;	// Fewest bodies for which the grid beats testing every pair
+ private final ContactPairs pairs = new ContactPairs();	// Touching pairs of the current collision phase
+ private final ContactCache contacts = new ContactCache();	// Touching pairs, kept from tick to tick
+ private ContactCache.Listener contactListener;	// Told about contacts beginning, persisting and ending, may be null
+ private final GravityField gravity = new GravityField(500, 500);	// Cached pull of the black holes
+ private boolean gravityDirty = false;	// A black hole was added, moved or removed since the last rebuild
+ private final TeleportNetwork teleportNetwork = new TeleportNetwork();	// Landing spots of teleported robots
+ private final SpatialGrid editorIndex = new SpatialGrid(500, 500, 25);	// Objects by position, for picking and partial redraws
+ private boolean editorIndexValid = false;	// False once a tick moved objects, rebuilt on the next query
+ private final ArrayList<AbstractObject> buried = new ArrayList<>();	// Objects removed during the tick, their slots hold null until compact()
+ private int firstTombstone = Integer.MAX_VALUE;	// Lowest list slot holding null
+ private boolean deferRemovals = false;	// Set while a tick runs, removals only leave a tombstone
+ private boolean batchRemovals = false;	// Set while queued commands are applied, their removals are compacted together
+ private final CommandQueue commands = new CommandQueue();	// Edits from other threads, applied at the start of the next tick
+ private static final List<String> POPULATE_TYPES = List.of("BumpSensorRobot", "WhiskerRobot", "BeamSensorRobot",
+         "SwarmRobot", "Obstacle", "TeleportPad", "BlackHole");	// Types populate() accepts
  
 /**
  * Responsible for initialisation of default objects
@@ -26,9 +81,22 @@ public class Arena {
  */
 
  public Arena() {
-	 
+     this(new Random().nextLong());
+ }
+
+ /**
+  * Creates an arena whose random decisions are derived from the given seed.
+  * <p>
+  * Two arenas created with the same seed and given the same inputs evolve identically.
+  * </p>
+  *
+  * @param seed The seed of the random generator.
+  */
+ public Arena(long seed) {
      objects = new ArrayList<>();
-     instance = this;
+     objectsView = Collections.unmodifiableList(objects);
+     this.seed = seed;
+     random = new Random(seed);
      // Add robots
      addObject(createRandomRobot());
      addObject(createRandomRobot());
@@ -37,117 +105,1518 @@ public class Arena {
      addObject(createRandomObstacle());
  }
 
- 
  /**
-  * Returns single instance of the arena
-  * 
-  * 
-  * @return single instance of the arena
+  * Turns the console messages for absorptions and teleports on or off
+  * <p>
+  * Headless runs with many arenas, such as a {@link SweepExecutor}, turn them off
+  * so the threads do not contend on {@code System.out}.
+  * </p>
+  *
+  * @param logging {@code true} to print events, {@code false} to stay quiet
+  */
+ public void setLogging(boolean logging) {
+     this.logging = logging;
+ }
+ 
+ 
+ /**
+  * Adds an object to the arena
+  * <p>
+  * The object gets a new id unless it already carries one that is free in this
+  * arena, which keeps ids stable when a saved arena is restored.
+  * </p>
+  * @param obj The object (Robot or Obstacle)
+  */
+
+ public void addObject(AbstractObject obj) {
+     insert(obj);
+     if (recorder != null) {
+         recorder.recordAdd(tick, obj);
+     }
+ }
+
+ /**
+  * Queues a command to run on the simulation thread at the start of the next tick
+  * <p>
+  * This is the thread-safe way to edit the arena: the command is applied by
+  * {@link #updateObjects()} before anything else, all queued commands together,
+  * so a tick never sees half of an edit. Commands run in the order they were
+  * submitted and may call any method of the arena.
+  * </p>
+  *
+  * @param command The edit to apply; safe to submit from any thread
+  */
+ public void submit(Consumer<Arena> command) {
+     commands.offer(command);
+ }
+
+ /**
+  * Queues {@link #addObject} for the start of the next tick
+  *
+  * @param obj The object to add
+  */
+ public void requestAdd(AbstractObject obj) {
+     submit(arena -> arena.addObject(obj));
+ }
+
+ /**
+  * Queues {@link #removeObject} for the start of the next tick
+  *
+  * @param obj The object to remove
+  */
+ public void requestRemove(AbstractObject obj) {
+     submit(arena -> arena.removeObject(obj));
+ }
+
+ /**
+  * Queues {@link #moveObject} for the start of the next tick; ignored if the object was removed by then
+  *
+  * @param obj The object to move
+  * @param x   The new x-coordinate
+  * @param y   The new y-coordinate
+  */
+ public void requestMove(AbstractObject obj, double x, double y) {
+     submit(arena -> {
+         if (obj.index >= 0) {
+             arena.moveObject(obj, x, y);
+         }
+     });
+ }
+
+ /**
+  * Queues {@link #clearObjects} for the start of the next tick
+  */
+ public void requestClear() {
+     submit(Arena::clearObjects);
+ }
+
+ /**
+  * Applies the queued commands now
+  * <p>
+  * Called at the start of every tick. The thread that owns the arena may also call
+  * it while the simulation is paused, so edits show up without waiting for a tick.
+  * It must not be called concurrently with {@link #updateObjects()}.
+  * </p>
+  *
+  * @return The number of commands applied
+  */
+ public int applyCommands() {
+     if (commands.isEmpty()) {
+         return 0;
+     }
+     batchRemovals = true; // Queued deletions leave tombstones and share one compaction
+     try {
+         return commands.drain(this);
+     } finally {
+         batchRemovals = false;
+         settle();
+     }
+ }
+
+ /**
+  * Assigns an id, indexes the object and appends it to the object list.
+  */
+ private void insert(AbstractObject obj) {
+     if (obj.id <= 0 || index.get(obj.id) != null) {
+         obj.id = nextId++;
+     } else if (obj.id >= nextId) {
+         nextId = obj.id + 1;
+     }
+     index.put(obj.id, obj);
+     obj.index = objects.size();
+     objects.add(obj);
+     count(obj, 1);
+     if (editorIndexValid) {
+         editorIndex.add(obj);
+     }
+     layoutChanged(obj);
+     if (obj instanceof Robot) {
+         Robot robot = (Robot) obj;
+         robot.sleeping = false;
+         robot.quietTicks = 0;
+         if (robot.controller == null) {
+             robot.controller = defaultController(robot);
+         }
+     }
+     wakeSleepersNear(obj);
+     if (eventDriven && !crowded) {
+         wakeNeighbours(obj, false);
+     }
+ }
+
+ /**
+  * Adjusts the cached per-type counts when an object enters or leaves the arena
+  */
+ private void count(AbstractObject obj, int delta) {
+     int[] n = typeCounts.get(obj.getClass());
+     if (n == null) {
+         n = new int[1];
+         typeCounts.put(obj.getClass(), n);
+     }
+     n[0] += delta;
+     if (obj instanceof Robot) {
+         robotsCount += delta;
+     } else if (obj instanceof Obstacle) {
+         obstaclesCount += delta;
+     }
+ }
+
+ /**
+  * Looks up an object by its id
+  *
+  * @param id The id of the object
+  * @return The object, or {@code null} if no object in the arena has this id
+  */
+ public AbstractObject getObject(int id) {
+     return index.get(id);
+ }
+
+ /**
+  * Creates an object of the given type with the matching {@code createRandom*} factory
+  * and adds it to the arena.
+  * <p>
+  * Because the factories draw from the seeded generator, recording the type is
+  * enough to reproduce the object when a run is replayed.
+  * </p>
+  *
+  * @param type The simple class name of the object (e.g. {@code "WhiskerRobot"}).
+  * @return The new object, or {@code null} if the type is unknown.
+  */
+ public AbstractObject spawn(String type) {
+     AbstractObject obj = createRandom(type);
+     if (obj == null) {
+         return null;
+     }
+     if (recorder != null) {
+         recorder.recordSpawn(tick, type);
+     }
+     insert(obj);
+     return obj;
+ }
+
+ /**
+  * Adds many objects of a given mix at once, none of them overlapping each other,
+  * the objects already in the arena or a black hole.
+  * <p>
+  * The objects come from the {@code createRandom*} factories and are then moved to
+  * spots found by a {@link SpawnPlacer}, largest first so the small ones fill the
+  * gaps. If the arena runs out of room the remaining objects are dropped. The whole
+  * call is recorded as one event; replaying it draws the same random numbers and so
+  * rebuilds the same scene.
+  * </p>
+  *
+  * @param mix The number of objects per simple class name, placed in iteration order
+  *            among objects of the same size. ControlBots cannot be added this way.
+  * @return The number of objects added.
+  * @throws IllegalArgumentException If the mix names an unknown type or a ControlBot.
+  */
+ public int populate(Map<String, Integer> mix) {
+     for (String type : mix.keySet()) {
+         if (!POPULATE_TYPES.contains(type)) {
+             throw new IllegalArgumentException("Cannot populate " + type);
+         }
+     }
+     if (recorder != null) {
+         recorder.recordPopulate(tick, mix);
+     }
+     SimulationEvents.BulkEditEvent event = new SimulationEvents.BulkEditEvent();
+     event.begin();
+     event.operation = "populate";
+     ArrayList<AbstractObject> created = new ArrayList<>();
+     for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+         for (int i = 0; i < entry.getValue(); i++) {
+             AbstractObject obj = createRandom(entry.getKey());
+             created.add(obj);
+         }
+     }
+     created.sort(Comparator.comparingDouble((AbstractObject obj) -> obj.radius).reversed());
+     settle();
+     SpawnPlacer placer = new SpawnPlacer(objects, 500, 500);
+     int added = 0;
+     for (AbstractObject obj : created) {
+         if (placer.place(obj, random)) {
+             insert(obj);
+             added++;
+         } else {
+             recycle(obj);
+         }
+     }
+     if (logging && added < created.size()) {
+         System.out.println("Arena full, added " + added + " of " + created.size() + " objects");
+     }
+     event.objects = added;
+     event.commit();
+     return added;
+ }
+
+ /**
+  * Creates an object of the given type with the matching {@code createRandom*} factory.
+  *
+  * @return The new object, or {@code null} if the type is unknown.
+  */
+ private AbstractObject createRandom(String type) {
+     AbstractObject obj;
+     switch (type) {
+         case "BumpSensorRobot":
+             obj = createRandomRobot();
+             break;
+         case "WhiskerRobot":
+             obj = createRandomWhiskerRobot();
+             break;
+         case "BeamSensorRobot":
+             obj = createRandomBeamSensorRobot();
+             break;
+         case "SwarmRobot":
+             obj = createRandomSwarmRobot();
+             break;
+         case "ControlBot":
+             obj = new ControlBot(250, 250, 15, 2, 0); // Initial position and size
+             break;
+         case "Obstacle":
+             obj = createRandomObstacle();
+             break;
+         case "TeleportPad":
+             obj = createRandomTeleportPad();
+             break;
+         case "BlackHole":
+             obj = createRandomBlackHole();
+             break;
+         default:
+             return null;
+     }
+     return obj;
+ }
+
+ /**
+  * Removes an object from the arena
+  * <p>
+  * The order of the remaining objects does not change. During a tick the object's
+  * slot is only set to {@code null}; all slots emptied in the tick are dropped in
+  * one pass by {@link #compact()} at its end, so absorbing many robots costs a
+  * single sweep of the list. Removals queued with {@link #requestRemove} are
+  * batched the same way: the slots they empty are dropped together once the queued
+  * commands are applied, or earlier if a command reads the list, so deleting many
+  * objects from the editor costs one sweep instead of one per object. Other
+  * removals outside a tick compact the list right away.
+  * </p>
+  * <p>
+  * The object may be recycled by the next {@code createRandom*} call, so it must not
+  * be used or added again after removal.
+  * </p>
+  *
+  * @param obj The object to remove
+  */
+ public void removeObject(AbstractObject obj) {
+     int i = obj.index;
+     if (i < 0 || i >= objects.size() || objects.get(i) != obj) {
+         return; // Not in this arena
+     }
+     if (recorder != null && !deferRemovals) {
+         recorder.recordRemove(tick, obj.id); // Absorptions are not recorded, the replay absorbs the robot itself
+     }
+     objects.set(i, null); // Tombstone
+     firstTombstone = Math.min(firstTombstone, i);
+     buried.add(obj);
+     index.remove(obj.id);
+     count(obj, -1);
+     if (editorIndexValid) {
+         editorIndex.remove(obj, obj.x, obj.y);
+     }
+     layoutChanged(obj);
+     if (obj instanceof Robot && ((Robot) obj).sleeping) {
+         ((Robot) obj).sleeping = false;
+         sleepers.remove(obj);
+     }
+     if (obj instanceof Robot && ((Robot) obj).controller instanceof GoalController) {
+         ((GoalController) ((Robot) obj).controller).release((Robot) obj);
+     }
+     obj.index = -1;
+     if (!deferRemovals && !batchRemovals) {
+         compact();
+     }
+ }
+
+ /**
+  * Drops the tombstones left by batched removals before the list is read outside a tick
+  */
+ private void settle() {
+     if (!deferRemovals) {
+         compact();
+     }
+ }
+
+ /**
+  * Drops the tombstones of removed objects from the list in one pass
+  * <p>
+  * The remaining objects keep their order and get their new list index; the
+  * removed ones go to the pool.
+  * </p>
+  */
+ private void compact() {
+     if (buried.isEmpty()) {
+         return;
+     }
+     int kept = firstTombstone;
+     for (int i = firstTombstone; i < objects.size(); i++) {
+         AbstractObject obj = objects.get(i);
+         if (obj != null) {
+             objects.set(kept, obj);
+             obj.index = kept++;
+         }
+     }
+     objects.subList(kept, objects.size()).clear();
+     for (int b = 0; b < buried.size(); b++) {
+         recycle(buried.get(b));
+     }
+     buried.clear();
+     firstTombstone = Integer.MAX_VALUE;
+ }
+
+ /**
+  * Moves an object to a new position, e.g. when it is dragged in the editor
+  *
+  * @param obj The object to move
+  * @param x   The new x-coordinate
+  * @param y   The new y-coordinate
+  */
+ public void moveObject(AbstractObject obj, double x, double y) {
+     if (recorder != null) {
+         recorder.recordMove(tick, obj.id, x, y);
+     }
+     double oldX = obj.x;
+     double oldY = obj.y;
+     obj.x = x;
+     obj.y = y;
+     if (editorIndexValid && obj.index >= 0) {
+         editorIndex.move(obj, oldX, oldY);
+     }
+     layoutChanged(obj);
+     if (obj.index >= 0) {
+         if (obj instanceof Robot && ((Robot) obj).sleeping) {
+             wake((Robot) obj, false);
+         }
+         wakeSleepersNear(obj);
+     }
+     if (eventDriven && !crowded && obj.index >= 0) {
+         wakeNeighbours(obj, false);
+     }
+ }
+ 
+ /**
+  * Clears objects from the arena
+  */
+
+ public void clearObjects() {
+     settle();
+     if (recorder != null) {
+         recorder.recordClear(tick);
+     }
+     SimulationEvents.BulkEditEvent event = new SimulationEvents.BulkEditEvent();
+     event.begin();
+     event.operation = "clear";
+     event.objects = objects.size();
+     for (AbstractObject obj : objects) {
+         obj.index = -1;
+         recycle(obj);
+     }
+     objects.clear();
+     index.clear();
+     events.clear();
+     for (Robot robot : sleepers) {
+         robot.sleeping = false;
+     }
+     sleepers.clear();
+     controllers.clear();
+     contacts.clear();
+     editorIndex.clear();
+     editorIndexValid = true;
+     neighbourIndex.invalidate();
+     flowFields.clear();
+     radio.clear();
+     gravityDirty = true;
+     teleportNetwork.invalidate();
+     for (int[] n : typeCounts.values()) {
+         n[0] = 0;
+     }
+     robotsCount = 0;
+     obstaclesCount = 0;
+     event.commit();
+ }
+
+ /**
+  * Hands a removed object to the pool if the factories can reuse it.
+  * <p>
+  * ControlBots are never recycled because {@code Simulation} keeps a reference to them.
+  * </p>
+  */
+ private void recycle(AbstractObject obj) {
+     if (!(obj instanceof ControlBot)) {
+         pool.release(obj);
+     }
+ }
+
+ /**
+  * Takes a robot of the given type from the pool and resets its state.
+  *
+  * @return The recycled robot, or {@code null} if the pool has none.
+  */
+ private <T extends Robot> T reuseRobot(Class<T> type, double x, double y, double radius, double speed, double direction) {
+     settle(); // Objects removed in a batch reach the pool when it is compacted
+     T robot = pool.acquire(type);
+     if (robot != null) {
+         robot.reset(x, y, radius, speed, direction);
+     }
+     return robot;
+ }
+
+ /**
+  * Takes a static object of the given type from the pool and resets its state.
+  *
+  * @return The recycled object, or {@code null} if the pool has none.
+  */
+ private <T extends AbstractObject> T reuse(Class<T> type, double x, double y, double radius) {
+     settle();
+     T obj = pool.acquire(type);
+     if (obj != null) {
+         obj.reset(x, y, radius);
+     }
+     return obj;
+ }
+
+ /**
+  * Returns the pool that recycles removed objects
+  *
+  * @return The object pool of this arena
+  */
+ public ObjectPool getPool() {
+     return pool;
+ }
+
+ /**
+  * Returns the seed the random generator was last reset with
+  *
+  * @return The seed of the random generator
+  */
+ public long getSeed() {
+     return seed;
+ }
+
+ /**
+  * Resets the random generator with a new seed
+  *
+  * @param seed The new seed
+  */
+ public void setSeed(long seed) {
+     this.seed = seed;
+     random = new Random(seed);
+ }
+
+ /**
+  * Returns the random generator used for every random decision in the arena
+  *
+  * @return The seeded random generator
+  */
+ public Random getRandom() {
+     return random;
+ }
+
+ /**
+  * Returns the number of updates performed so far
+  *
+  * @return The current tick
+  */
+ public long getTick() {
+     return tick;
+ }
+
+ /**
+  * Returns the id the next new object will receive
+  *
+  * @return The next id
+  */
+ int getNextId() {
+     return nextId;
+ }
+
+ /**
+  * Sets the id the next new object will receive, used when a recording is replayed
+  *
+  * @param nextId The next id
+  */
+ void setNextId(int nextId) {
+     this.nextId = nextId;
+ }
+
+ /**
+  * Returns the instrumentation of this arena's ticks
+  *
+  * @return The metrics of this arena
+  */
+ public SimulationMetrics getMetrics() {
+     return metrics;
+ }
+
+ /**
+  * Returns the pairs of objects that touched in the last collision phase
+  *
+  * @return The contact cache of this arena
+  */
+ public ContactCache getContacts() {
+     return contacts;
+ }
+
+ /**
+  * Sets the listener that is told about contacts beginning, persisting and ending, or {@code null} for none
+  * <p>
+  * Every pair of a robot and an obstacle or another robot that touch is reported
+  * once per tick, during the collision phase or, for contacts that were not found
+  * again, at the end of the tick.
+  * </p>
+  *
+  * @param listener The listener to use
+  */
+ public void setContactListener(ContactCache.Listener listener) {
+     this.contactListener = listener;
+ }
+
+ /**
+  * Finds the robots nearest to a point, nearest first
+  * <p>
+  * Served from a grid of the robots that is rebuilt at most once per tick and only
+  * when queried, so a query costs about as much as looking at the cells around
+  * the point. Robots at the same distance come in a fixed order. Must be called on
+  * the thread running the ticks, e.g. from {@link Robot#sense(Arena)}.
+  * </p>
+  *
+  * @param x       The x-coordinate of the point
+  * @param y       The y-coordinate of the point
+  * @param k       The number of robots to find
+  * @param exclude A robot to leave out, usually the one asking, or {@code null}
+  * @param result  Receives up to {@code k} robots with their distances; reused between calls
+  */
+ public void nearestRobots(double x, double y, int k, Robot exclude, NeighbourResult result) {
+     neighbourIndex.ensure(objects);
+     neighbourIndex.nearest(x, y, k, exclude, result);
+ }
+
+ /**
+  * Finds the robots whose centers lie within a distance of a point
+  * <p>
+  * Uses the same grid as {@link #nearestRobots}. Must be called on the thread
+  * running the ticks.
+  * </p>
+  *
+  * @param x       The x-coordinate of the point
+  * @param y       The y-coordinate of the point
+  * @param radius  The largest distance between the point and a robot's center
+  * @param exclude A robot to leave out, usually the one asking, or {@code null}
+  * @param result  Receives the robots with their distances; reused between calls
+  */
+ public void robotsWithin(double x, double y, double radius, Robot exclude, NeighbourResult result) {
+     neighbourIndex.ensure(objects);
+     neighbourIndex.within(x, y, radius, exclude, result);
+ }
+
+ /**
+  * Sets the recorder that is told about every editor action, or {@code null} to stop recording
+  *
+  * @param recorder The recorder to use
+  */
+ public void setRecorder(SimulationRecorder recorder) {
+     this.recorder = recorder;
+ }
+
+ /**
+  * Computes a checksum over the state of every object.
+  * <p>
+  * Used to detect when a replayed run diverges from the recorded one.
+  * </p>
+  *
+  * @return A checksum of the positions and directions of all objects
+  */
+ public long checksum() {
+     settle();
+     long hash = objects.size();
+     for (AbstractObject obj : objects) {
+         hash = hash * 31 + Double.doubleToLongBits(obj.x);
+         hash = hash * 31 + Double.doubleToLongBits(obj.y);
+         if (obj instanceof Robot) {
+             hash = hash * 31 + Double.doubleToLongBits(((Robot) obj).direction);
+         }
+     }
+     return hash;
+ }
+
+ /**
+  * Updates the status of objects in the arena
+  * 
+  * <p>
+  * This handles movement, detection of collisions, and special interactions (black hole absorption and teleportation)
+  * </p>
+  * <p>
+  * A tick runs in phases: control, sensing, update (movement), absorption, teleport and collision.
+  * Each phase is timed by the arena's {@link SimulationMetrics} when metrics are enabled.
+  * </p>
+  * <p>
+  * With {@link #setEventDriven event-driven scheduling} only the robots whose predicted
+  * interaction is due run the sensing, absorption, teleport and collision phases.
+  * </p>
+  */
+ 
+ public void updateObjects() {
+     applyCommands();
+     long tickStart = metrics.start();
+     long phaseStart = tickStart;
+     int candidatePairs = 0, collisions = 0, teleports = 0, absorptions = 0;
+     tickEvent.begin();
+     phaseEvent.start(SimulationMetrics.Phase.CONTROL, tick);
+
+     editorIndexValid = false; // Objects move from here on
+     neighbourIndex.invalidate(); // Robots may have been turned since the last tick
+     if (gravityDirty) {
+         rebuildGravity();
+     }
+
+     // Sleepers moved by keyboard input since the last tick wake up
+     for (int s = sleepers.size() - 1; s >= 0; s--) {
+         Robot robot = sleepers.get(s);
+         if (robot.x != robot.lastX || robot.y != robot.lastY) {
+             wake(robot, false);
+         }
+     }
+
+     // Let controllers steer their robots before anything moves
+     flowFields.update(objects); // Recompute the fields of goals in use if obstacles were edited
+     List<Robot> retuned = controllers.run(objects, eventDriven && !crowded, tick, SENSOR_MARGIN);
+     if (eventDriven && !crowded) {
+         for (int r = 0; r < retuned.size(); r++) {
+             wakeNeighbours(retuned.get(r), false); // Predictions assumed the old speed
+         }
+     }
+     neighbourIndex.invalidate(); // Controllers turned robots
+     phaseStart = metrics.endPhase(SimulationMetrics.Phase.CONTROL, phaseStart);
+     phaseEvent.next(SimulationMetrics.Phase.SENSING);
+
+     // Robots that run the interaction phases this tick, in list order
+     collectActive();
+
+     // Let robots sense their surroundings before anything moves
+     for (int a = 0; a < active.size(); a++) {
+         active.get(a).sense(this);
+     }
+     phaseStart = metrics.endPhase(SimulationMetrics.Phase.SENSING, phaseStart);
+     phaseEvent.next(SimulationMetrics.Phase.UPDATE);
+
+     // Update objects, robots with the standard movement in one kernel call
+     for (AbstractObject obj : objects) {
+         if (obj instanceof Robot && PackedBodies.hasDefaultMotion((Robot) obj)) {
+             movers.addMoving((Robot) obj);
+         } else {
+             obj.update();
+         }
+     }
+     if (!gravity.isEmpty()) {
+         movers.pull(gravity);
+     }
+     movers.integrate(kernel, 500, 500);
+     neighbourIndex.invalidate();
+     phaseStart = metrics.endPhase(SimulationMetrics.Phase.UPDATE, phaseStart);
+     phaseEvent.next(SimulationMetrics.Phase.ABSORPTION);
+
+  // Check for robot absorption by black holes
+     // Absorbed robots leave a tombstone until the end of the tick
+     if (!active.isEmpty() && !gravity.isEmpty()) {
+         for (AbstractObject obj : objects) {
+             if (obj instanceof BlackHole) {
+                 holes.add(obj);
+             }
+         }
+     }
+     deferRemovals = true;
+     for (int a = 0; a < active.size() && holes.size > 0; a++) {
+         Robot robot = active.get(a);
+         if (gravity.mayAbsorb(robot) && holes.overlaps(kernel, robot) > 0) {
+             AbstractObject hole = holes.objects[holes.hits[0]]; // The first one in list order absorbs it
+             if (logging) {
+                 System.out.println(robot + " was absorbed by " + hole + "!");
+             }
+             removeObject(robot);
+             absorptions++;
+         }
+     }
+     holes.release();
+     if (absorptions > 0) {
+         active.removeIf(robot -> robot.index < 0); // Absorbed
+     }
+     phaseStart = metrics.endPhase(SimulationMetrics.Phase.ABSORPTION, phaseStart);
+     phaseEvent.next(SimulationMetrics.Phase.TELEPORT);
+
+     // Check for robot to teleport pad interaction
+     // Only pads are scanned per robot; each is tested at the robot's current position
+     if (!active.isEmpty()) {
+         for (AbstractObject obj : objects) {
+             if (obj instanceof TeleportPad) {
+                 pads.add(obj);
+             }
+         }
+     }
+     int activeBeforeTeleport = active.size();
+     for (int a = 0; a < activeBeforeTeleport && pads.size > 0; a++) {
+         Robot robot = active.get(a);
+         for (int p = 0; p < pads.size; p++) {
+             TeleportPad pad = (TeleportPad) pads.objects[p];
+             if (robot.checkCollision(pad)) {
+                 if (!teleportNetwork.teleport(pad, getExit(pad), robot, random, this, neighbourIndex)) {
+                     continue; // No spot clear of robots, it tries again next tick
+                 }
+                 if (logging) {
+                     System.out.println("Object teleported to: (" + robot.x + ", " + robot.y + ")");
+                 }
+                 if (eventDriven && !crowded) {
+                     wakeNeighbours(robot, true);
+                 }
+                 teleports++;
+             }
+         }
+     }
+     pads.release();
+     if (teleports > 0) {
+         neighbourIndex.invalidate();
+     }
+     phaseStart = metrics.endPhase(SimulationMetrics.Phase.TELEPORT, phaseStart);
+     phaseEvent.next(SimulationMetrics.Phase.COLLISION);
+
+     // Check for robot to obstacle and robot to robot collisions
+     // Positions do not change in this phase, so they are packed once for all robots
+     // Each touching pair is found once, then every robot handles its contacts
+     pairs.reset(objects.size());
+     if (!active.isEmpty()) {
+         for (int i = 0; i < objects.size(); i++) {
+             AbstractObject obj = objects.get(i);
+             if (obj instanceof Obstacle || obj instanceof Robot) {
+                 pairs.slot[i] = bodies.size;
+                 bodies.add(obj);
+             }
+         }
+     }
+     boolean useGrid = bodies.size >= BROAD_PHASE_THRESHOLD;
+     if (useGrid) {
+         bodies.index(broadPhase); // Many bodies, only test the ones near each robot
+     }
+     for (int a = 0; a < active.size(); a++) {
+         Robot robot = active.get(a);
+         int self = pairs.slot[robot.index];
+
+         // Find the objects it touches, except robots whose query already found the pair
+         int hits;
+         if (useGrid) {
+             hits = bodies.overlaps(broadPhase, robot, pairs.queried);
+             candidatePairs += broadPhase.getTested() - 1;
+         } else {
+             hits = bodies.overlaps(kernel, robot);
+             candidatePairs += bodies.size - 1;
+         }
+         pairs.queried[self] = true;
+         for (int h = 0; h < hits; h++) {
+             int other = bodies.hits[h];
+             if (other == self || pairs.queried[other]) {
+                 continue;
+             }
+             pairs.add(self, other);
+             AbstractObject obj2 = bodies.objects[other];
+             if (obj2 instanceof Robot && ((Robot) obj2).sleeping) {
+                 wake((Robot) obj2, true); // Touched, so it handles this collision too
+             }
+         }
+     }
+     pairs.group(bodies.size);
+     for (int a = 0; a < active.size(); a++) {
+         Robot robot = active.get(a);
+         int self = pairs.slot[robot.index];
+         for (int k = pairs.start(self); k < pairs.end(self); k++) {
+             robot.handleCollision(bodies.objects[pairs.partner(k)]); // Handle robot to obstacle or robot to robot collision
+             collisions++;
+         }
+     }
+     for (int p = 0; p < pairs.size(); p++) {
+         AbstractObject first = bodies.objects[pairs.first(p)];
+         AbstractObject second = bodies.objects[pairs.second(p)];
+         ContactCache.State state = contacts.touch(first.id, second.id, tick);
+         if (contactListener != null) {
+             contactListener.onContact(Math.min(first.id, second.id), Math.max(first.id, second.id), state);
+         }
+     }
+     bodies.release();
+     neighbourIndex.invalidate(); // Collisions turned robots
+     metrics.endPhase(SimulationMetrics.Phase.COLLISION, phaseStart);
+     phaseEvent.commit();
+
+     // Drop the tombstones of absorbed robots in one sweep
+     deferRemovals = false;
+     compact();
+     contacts.sweep(tick, this, contactListener);
+     radio.deliver(neighbourIndex, objects); // Read by the receivers when they sense in the next tick
+
+     for (int a = 0; a < active.size(); a++) {
+         rest(active.get(a));
+     }
+     if (eventDriven) {
+         scheduleActive();
+     }
+     active.clear();
+
+     metrics.endTick(tickStart, candidatePairs, collisions, teleports, absorptions);
+     if (tickEvent.shouldCommit()) {
+         tickEvent.tick = tick;
+         tickEvent.objects = objects.size();
+         tickEvent.candidatePairs = candidatePairs;
+         tickEvent.collisions = collisions;
+         tickEvent.teleports = teleports;
+         tickEvent.absorptions = absorptions;
+         tickEvent.commit();
+     }
+     tick++;
+ }
+
+ /**
+  * Fills {@code active} with the robots that have to run the interaction phases this tick
+  * <p>
+  * Sleeping robots are left out. Without event-driven scheduling, or while the scene is
+  * crowded, that is every other robot. Otherwise it is every robot
+  * whose predicted event is due; the others are too far from everything to sense,
+  * collide with, teleport or be absorbed by anything, so skipping them gives exactly
+  * the same result.
+  * </p>
+  */
+ private void collectActive() {
+     if (!eventDriven || crowded) {
+         for (AbstractObject obj : objects) {
+             if (obj instanceof Robot && !((Robot) obj).sleeping) {
+                 active.add((Robot) obj);
+             }
+         }
+         return;
+     }
+     while (events.peekTick() <= tick) {
+         long due = events.peekTick();
+         AbstractObject obj = index.get(events.peekId());
+         events.pop();
+         if (obj instanceof Robot && ((Robot) obj).wake == due) {
+             ((Robot) obj).wake = ACTIVE; // Ignore further entries of this robot
+             active.add((Robot) obj);
+         }
+     }
+     active.sort(BY_INDEX);
+ }
+
+ /**
+  * Predicts when each robot checked this tick may interact again
+  * <p>
+  * In crowded scenes nearly every robot is due every tick, so predicting only adds
+  * work. When more than half of them are due next tick the arena checks every robot
+  * without predictions and retries every {@code CROWDED_RETRY_INTERVAL} ticks.
+  * </p>
+  */
+ private void scheduleActive() {
+     if (crowded) {
+         if (tick % CROWDED_RETRY_INTERVAL != 0) {
+             return;
+         }
+         events.clear(); // Every robot was checked this tick and gets a fresh prediction
+     }
+     int due = 0;
+     for (int a = 0; a < active.size(); a++) {
+         Robot robot = active.get(a);
+         schedule(robot, tick + 1);
+         if (robot.wake == tick + 1) {
+             due++;
+         }
+     }
+     crowded = due * 2 > robotsCount;
+     if (crowded) {
+         events.clear();
+     }
+ }
+
+ /**
+  * Predicts the first tick at which a robot may interact with another object and queues it
+  * <p>
+  * Every object moves at most its {@link #maxStep} per tick, so a robot cannot come within
+  * interaction range of another object before the gap between them is used up.
+  * </p>
+  *
+  * @param robot The robot to schedule
+  * @param next  The next tick to be run
   */
- public static Arena getInstance() {
-     return instance;
+ private void schedule(Robot robot, long next) {
+     if (robot.index < 0 || robot.sleeping) {
+         return; // Absorbed or asleep, neither needs a prediction
+     }
+     long safe = robot.inbox != null ? 0 : safeTicks(robot); // Radios sense every tick
+     robot.wake = safe == Long.MAX_VALUE ? Long.MAX_VALUE : next + safe;
+     if (robot.wake != Long.MAX_VALUE) {
+         events.push(robot.wake, robot.id);
+     }
+     if (events.size() > 4 * robotsCount + 64) {
+         rebuildEvents();
+     }
  }
- 
- 
+
  /**
-  * Adds an object to the arena
-  * @param obj The object (Robot or Obstacle)
+  * Returns the number of upcoming ticks in which a robot certainly interacts with nothing
   */
+ private long safeTicks(Robot robot) {
+     if (robot.x - robot.radius < 0 || robot.x + robot.radius > 500
+             || robot.y - robot.radius < 0 || robot.y + robot.radius > 500) {
+         return 0; // Outside the walls the bounce can move it further than its speed
+     }
+     double step = maxStep(robot);
+     long safe = Long.MAX_VALUE;
+     for (AbstractObject other : objects) {
+         if (other != robot) {
+             safe = safeTicks(robot, step, other, safe);
+             if (safe == 0) {
+                 break;
+             }
+         }
+     }
+     return safe;
+ }
 
- public void addObject(AbstractObject obj) {
-     objects.add(obj);
+ /**
+  * Lowers {@code safe} to the number of upcoming ticks in which a robot certainly does not
+  * interact with one more object
+  */
+ private long safeTicks(Robot robot, double step, AbstractObject other, long safe) {
+     double closing = step + maxStep(other);
+     double dx = robot.x - other.x;
+     double dy = robot.y - other.y;
+     double distanceSq = dx * dx + dy * dy;
+     double reach = robot.radius + other.radius + (other instanceof Obstacle ? SENSOR_MARGIN : 0);
+     if (closing <= 0) {
+         return distanceSq < (reach + 1e-6) * (reach + 1e-6) ? 0 : safe; // Neither moves, in range forever or never
+     }
+     if (safe != Long.MAX_VALUE) {
+         double limit = reach + closing * (safe + 1);
+         if (distanceSq >= limit * limit) {
+             return safe; // Too far away to lower the current bound, skip the square root
+         }
+     }
+     double gap = Math.sqrt(distanceSq) - reach - 1e-6; // Slack for rounding
+     return gap <= 0 ? 0 : Math.min(safe, (long) (gap / closing));
  }
- 
+
  /**
-  * Clears objects from the arena
+  * Returns the largest distance an object can travel in one tick
   */
+ private double maxStep(AbstractObject obj) {
+     if (!(obj instanceof Robot) || ((Robot) obj).sleeping) {
+         return 0; // A sleeper that moves is woken before anything else happens
+     }
+     Robot robot = (Robot) obj;
+     double speed = Math.abs(robot.speed);
+     if (robot instanceof ControlBot) {
+         return speed * Math.sqrt(2); // Keys move it along both axes
+     }
+     return PackedBodies.hasDefaultMotion(robot) ? speed + gravity.getMaxPull() : speed;
+ }
 
- public void clearObjects() {
-     objects.clear();
+ /**
+  * Recomputes the black hole pull after holes were added, moved or removed
+  * <p>
+  * Called at the start of a tick, before anything moves. The new pull can move robots
+  * that were at rest and changes how far robots can travel per tick, so sleepers wake
+  * up and every prediction is redone.
+  * </p>
+  */
+ private void rebuildGravity() {
+     gravityDirty = false;
+     gravity.rebuild(objects);
+     for (int s = sleepers.size() - 1; s >= 0; s--) {
+         wake(sleepers.get(s), false);
+     }
+     if (eventDriven) {
+         setEventDriven(true);
+     }
  }
 
  /**
-  * Updates the status of objects in the arena
-  * 
+  * Brings the predictions of all robots forward after an object appeared or jumped
   * <p>
-  * This handles movement, detection of collisions, and special interactions (black hole absorption and teleportation)
+  * Called for teleports, editor moves and new objects. Robots that are already in
+  * range join this tick's remaining phases when {@code duringTick} is set.
+  * </p>
+  *
+  * @param obj        The object that appeared or moved
+  * @param duringTick {@code true} if called between the teleport and collision phases
   */
- 
- public void updateObjects() {
-     // Update objects
-     for (AbstractObject obj : objects) {
-         obj.update();
+ private void wakeNeighbours(AbstractObject obj, boolean duringTick) {
+     long next = duringTick ? tick + 1 : tick;
+     if (obj instanceof Robot && !duringTick) {
+         Robot robot = (Robot) obj;
+         robot.wake = next;
+         events.push(next, robot.id);
+     }
+     for (AbstractObject other : objects) {
+         if (other == obj || !(other instanceof Robot)) {
+             continue;
+         }
+         Robot robot = (Robot) other;
+         if (robot.wake == ACTIVE || robot.sleeping) {
+             continue; // Already checked this tick, or woken on contact
+         }
+         long safe = safeTicks(robot, maxStep(robot), obj, Long.MAX_VALUE);
+         if (safe == 0 && duringTick) {
+             robot.wake = ACTIVE;
+             active.add(robot);
+         } else if (safe != Long.MAX_VALUE && next + safe < robot.wake) {
+             robot.wake = next + safe;
+             events.push(robot.wake, robot.id);
+         }
      }
+     if (events.size() > 4 * robotsCount + 64) {
+         rebuildEvents();
+     }
+ }
 
-  // Check for robot absorption by black holes
-     objects.removeIf(obj -> {
+ /**
+  * Drops stale entries by queueing the current prediction of every robot once
+  */
+ private void rebuildEvents() {
+     events.clear();
+     for (AbstractObject obj : objects) {
          if (obj instanceof Robot) {
              Robot robot = (Robot) obj;
-             for (AbstractObject obstacle : objects) {
-                 if (obstacle instanceof BlackHole && ((BlackHole) obstacle).absorbs(robot)) {
-                     System.out.println("Robot " + robot + " was absorbed by a BlackHole!");
-                     return true; // Remove the robot
-                 }
+             if (robot.wake != ACTIVE && robot.wake != Long.MAX_VALUE) {
+                 events.push(robot.wake, robot.id);
              }
          }
-         return false;
-     });
-     
-     // Check for all types of collisions
-     for (int i = 0; i < objects.size(); i++) {
-         AbstractObject obj1 = objects.get(i);
-         
-      // Check for robot to teleport pad interaction
-         for (AbstractObject obj : objects) {
-             if (obj instanceof Robot) {
-                 Robot robot = (Robot) obj;
-                 for (AbstractObject pad : objects) {
-                     if (pad instanceof TeleportPad && robot.checkCollision(pad)) {
-                         ((TeleportPad) pad).teleport(robot); // Teleport the robot
-                     }
-                 }
+     }
+ }
+
+ /**
+  * Counts a quiet check for a robot and puts it to sleep after {@code SLEEP_AFTER} of them
+  * <p>
+  * A robot sleeps once its position and direction stayed the same for that long and
+  * nothing is within reach of its sensors or body. Running it would then change nothing
+  * until something comes close, which wakes it. This is mostly a parked
+  * {@code ControlBot}, or a robot loaded with speed 0.
+  * </p>
+  */
+ private void rest(Robot robot) {
+     if (robot.index < 0) {
+         return; // Absorbed
+     }
+     if (robot.x == robot.lastX && robot.y == robot.lastY && robot.direction == robot.lastDirection) {
+         if (robot.controller != null && !skipsIdle(robot.controller)) {
+             return; // Its controller may steer it without anything nearby
+         }
+         if (robot.inbox != null) {
+             return; // Messages may arrive at any time
+         }
+         if (++robot.quietTicks >= SLEEP_AFTER) {
+             if (isolated(robot)) {
+                 robot.sleeping = true;
+                 robot.wake = Long.MAX_VALUE;
+                 sleepers.add(robot);
+             } else {
+                 robot.quietTicks = 0; // Held in place by contacts that cancel out, check again later
              }
          }
+     } else {
+         robot.quietTicks = 0;
+         robot.lastX = robot.x;
+         robot.lastY = robot.y;
+         robot.lastDirection = robot.direction;
+     }
+ }
+
+ /**
+  * Checks that no other object is within reach of a robot's sensors or body
+  */
+ private boolean isolated(Robot robot) {
+     for (AbstractObject other : objects) {
+         if (other != robot && near(robot, other)) {
+             return false;
+         }
+     }
+     return true;
+ }
 
-         if (obj1 instanceof Robot) {
-             Robot robot = (Robot) obj1;
+ /**
+  * Checks whether an object is close enough to a robot to be sensed, touched, or to teleport or absorb it
+  */
+ private static boolean near(Robot robot, AbstractObject other) {
+     double dx = robot.x - other.x;
+     double dy = robot.y - other.y;
+     double reach = robot.radius + other.radius + SENSOR_MARGIN;
+     return dx * dx + dy * dy < reach * reach;
+ }
 
-             // Check for collisions with other objects
-             for (int j = 0; j < objects.size(); j++) {
-                 if (i != j) {
-                     AbstractObject obj2 = objects.get(j);
+ /**
+  * Takes a robot out of the sleeping set
+  *
+  * @param robot      The sleeping robot
+  * @param duringTick {@code true} if it was touched in the collision phase and has to join it
+  */
+ private void wake(Robot robot, boolean duringTick) {
+     robot.sleeping = false;
+     robot.quietTicks = 0;
+     sleepers.remove(robot);
+     if (duringTick) {
+         robot.wake = ACTIVE;
+         active.add(robot);
+     }
+     if (eventDriven && !crowded) {
+         wakeNeighbours(robot, duringTick); // Neighbours counted on it standing still
+     }
+ }
 
-                     if (obj2 instanceof Obstacle && robot.checkCollision(obj2)) {
-                         robot.handleCollision(obj2); // Handle robot to obstacle collision
-                     } else if (obj2 instanceof Robot && robot.checkCollision(obj2)) {
-                         robot.handleCollision(obj2); // Handle robot to robot collision
-                     } else if (obj2 instanceof TeleportPad && robot.checkCollision(obj2)) {
-                         ((TeleportPad) obj2).teleport(robot); // Handle robot to teleport interaction
-                     }
-                 }
+ /**
+  * Wakes the sleeping robots an added or moved object could sense, touch, teleport or absorb
+  */
+ private void wakeSleepersNear(AbstractObject obj) {
+     for (int s = sleepers.size() - 1; s >= 0; s--) {
+         Robot robot = sleepers.get(s);
+         if (robot != obj && near(robot, obj)) {
+             wake(robot, false);
+         }
+     }
+ }
+
+ /**
+  * Notes that a static object was added, moved or removed
+  */
+ private void layoutChanged(AbstractObject obj) {
+     if (obj instanceof Robot) {
+         neighbourIndex.invalidate();
+     }
+     if (obj instanceof Obstacle || obj instanceof BlackHole) {
+         flowFields.invalidate();
+     }
+     if (obj instanceof BlackHole) {
+         gravityDirty = true;
+     }
+     if (!(obj instanceof Robot)) {
+         teleportNetwork.invalidate();
+     }
+ }
+
+ /**
+  * Sends robots entering one pad to another pad
+  * <p>
+  * Robots entering {@code from} land on a free spot next to {@code to}. Links are
+  * one-way; see {@link #pairPads} for both directions. Removing the exit pad turns
+  * {@code from} back into a pad that sends robots anywhere.
+  * </p>
+  *
+  * @param from The pad robots enter
+  * @param to   The exit pad, or {@code null} to remove the link
+  */
+ public void linkPads(TeleportPad from, TeleportPad to) {
+     from.exitId = to == null ? 0 : to.id;
+     if (recorder != null) {
+         recorder.recordLink(tick, from.id, from.exitId);
+     }
+ }
+
+ /**
+  * Links two pads to each other
+  *
+  * @param a One pad
+  * @param b The other pad
+  */
+ public void pairPads(TeleportPad a, TeleportPad b) {
+     linkPads(a, b);
+     linkPads(b, a);
+ }
+
+ /**
+  * Returns the pad a pad sends robots to
+  *
+  * @param pad The pad robots enter
+  * @return The exit pad, or {@code null} if the pad is not linked or its exit is gone
+  */
+ public TeleportPad getExit(TeleportPad pad) {
+     AbstractObject exit = pad.exitId == 0 ? null : index.get(pad.exitId);
+     return exit instanceof TeleportPad ? (TeleportPad) exit : null;
+ }
+
+ /**
+  * Finds the object drawn on top at a point
+  * <p>
+  * Uses a spatial index and an exact circle test, so the cost does not grow with the
+  * number of objects. Objects later in the list are drawn later, so the last hit wins.
+  * </p>
+  *
+  * @param x The x-coordinate of the point
+  * @param y The y-coordinate of the point
+  * @return The topmost object whose circle contains the point, or {@code null}
+  */
+ public AbstractObject pick(double x, double y) {
+     AbstractObject top = null;
+     for (AbstractObject obj : editorIndex().at(x, y)) {
+         double dx = x - obj.x;
+         double dy = y - obj.y;
+         if (dx * dx + dy * dy <= obj.radius * obj.radius && (top == null || obj.index > top.index)) {
+             top = obj;
+         }
+     }
+     return top;
+ }
+
+ /**
+  * Collects the objects whose drawing may overlap a rectangle, in drawing order
+  *
+  * @param minX The left edge of the rectangle
+  * @param minY The top edge of the rectangle
+  * @param maxX The right edge of the rectangle
+  * @param maxY The bottom edge of the rectangle
+  * @param out  Receives the objects, sorted by their position in the object list
+  */
+ public void queryRegion(double minX, double minY, double maxX, double maxY, List<AbstractObject> out) {
+     editorIndex().query(minX, minY, maxX, maxY, out);
+     out.sort(Comparator.comparingInt(obj -> obj.index));
+ }
+
+ /**
+  * Returns the spatial index, rebuilding it if ticks have moved objects since it was built
+  */
+ private SpatialGrid editorIndex() {
+     if (!editorIndexValid) {
+         settle();
+         editorIndex.clear();
+         for (AbstractObject obj : objects) {
+             editorIndex.add(obj);
+         }
+         editorIndexValid = true;
+     }
+     return editorIndex;
+ }
+
+ /**
+  * Returns the kernel that moves robots and tests overlaps
+  *
+  * @return The kernel in use
+  */
+ public MotionKernel getMotionKernel() {
+     return kernel;
+ }
+
+ /**
+  * Replaces the kernel that moves robots and tests overlaps
+  * <p>
+  * All kernels give identical results; this is meant for benchmarks and for
+  * comparing the vector kernel against the scalar one.
+  * </p>
+  *
+  * @param kernel The kernel to use
+  */
+ public void setMotionKernel(MotionKernel kernel) {
+     this.kernel = kernel;
+ }
+
+ /**
+  * Returns the controller a robot gets when it is added without one
+  */
+ private static RobotController defaultController(Robot robot) {
+     if (robot instanceof WhiskerRobot) {
+         return AvoidanceController.WHISKER;
+     } else if (robot instanceof BeamSensorRobot) {
+         return AvoidanceController.BEAM;
+     } else if (robot instanceof SwarmRobot) {
+         return SwarmController.DEFAULT;
+     }
+     return null;
+ }
+
+ /**
+  * Checks whether a controller leaves robots unchanged while nothing is within {@code SENSOR_MARGIN}
+  */
+ private static boolean skipsIdle(RobotController controller) {
+     return controller.isReactive() && controller.getSensorRange() <= SENSOR_MARGIN;
+ }
+
+ /**
+  * Replaces the controller that steers a robot
+  * <p>
+  * Robots in the arena are steered by their controller once per tick, before they
+  * sense and move; see {@link RobotController}. {@code WhiskerRobot} and
+  * {@code BeamSensorRobot} start with an {@link AvoidanceController}.
+  * </p>
+  *
+  * @param robot      The robot to steer
+  * @param controller The new controller, or {@code null} to leave the robot to its own {@link Robot#sense}
+  */
+ public void setController(Robot robot, RobotController controller) {
+     if (robot.controller instanceof GoalController) {
+         ((GoalController) robot.controller).release(robot);
+     }
+     robot.controller = controller;
+     if (robot.sleeping) {
+         wake(robot, false); // The new controller may not wait for contacts
+     }
+ }
+
+ /**
+  * Returns the radio network of this arena, to configure range and limits
+  *
+  * @return The radio network
+  */
+ public RadioNetwork getRadio() {
+     return radio;
+ }
+
+ /**
+  * Gives a robot a radio, so it can broadcast and receive messages
+  * <p>
+  * The inbox gets the network's current capacity. A robot with a radio senses
+  * every tick and never falls asleep, so it reads every delivery in
+  * {@link Robot#sense(Arena)}, in event-driven mode too.
+  * </p>
+  *
+  * @param robot The robot to equip
+  */
+ public void equipRadio(Robot robot) {
+     if (robot.inbox != null) {
+         return;
+     }
+     robot.inbox = radio.createInbox();
+     if (robot.sleeping) {
+         wake(robot, false);
+     }
+     if (eventDriven && !crowded && robot.index >= 0 && robot.wake != ACTIVE && robot.wake > tick) {
+         robot.wake = tick; // Due in the next tick from now on
+         events.push(tick, robot.id);
+     }
+ }
+
+ /**
+  * Broadcasts a message to every robot with a radio within range, usually from {@link Robot#sense(Arena)}
+  * <p>
+  * Messages are queued and delivered together at the end of the tick, from where
+  * the sender was when it broadcast; receivers find them in their
+  * {@link Robot#getInbox() inbox} in the next tick.
+  * </p>
+  *
+  * @param sender  The robot sending, which must have a radio
+  * @param payload The message
+  * @return {@code false} if the sender has no radio or has used up its broadcasts for this tick
+  */
+ public boolean broadcast(Robot sender, long payload) {
+     return radio.send(sender, payload);
+ }
+
+ /**
+  * Sends a robot to a point, around obstacles and black holes
+  * <p>
+  * The robot gets the {@link GoalController} of the goal, which steers it along a
+  * {@link FlowField} shared by every robot heading to the same spot and stops it on
+  * arrival. It drives at its current speed, or at the cruise speed of its previous
+  * goal if it already navigated, so a robot that arrived somewhere moves again. The
+  * field is computed in the background, starting now, and recomputed when obstacles
+  * or black holes are edited.
+  * </p>
+  *
+  * @param robot The robot to send
+  * @param x     The x-coordinate of the goal
+  * @param y     The y-coordinate of the goal
+  */
+ public void navigateTo(Robot robot, double x, double y) {
+     double cruise = robot.controller instanceof GoalController
+             ? ((GoalController) robot.controller).getCruiseSpeed(robot) : robot.speed;
+     navigateTo(robot, x, y, cruise);
+ }
+
+ /**
+  * Sends a robot to a point at a given cruise speed, e.g. when a recording is replayed
+  *
+  * @param robot  The robot to send
+  * @param x      The x-coordinate of the goal
+  * @param y      The y-coordinate of the goal
+  * @param cruise The speed the robot drives at while it is outside the goal radius
+  */
+ void navigateTo(Robot robot, double x, double y, double cruise) {
+     if (recorder != null) {
+         recorder.recordNavigate(tick, robot.id, x, y, cruise);
+     }
+     GoalController controller = flowFields.controller(x, y);
+     setController(robot, controller);
+     controller.follow(robot, cruise);
+ }
+
+ /**
+  * Returns the number of robots that are currently asleep
+  *
+  * @return The number of sleeping robots
+  */
+ public int getSleepingCount() {
+     return sleepers.size();
+ }
+
+ /**
+  * Turns event-driven tick scheduling on or off
+  * <p>
+  * In event-driven mode the arena predicts, per robot, the earliest tick at which it
+  * could come within range of another object (for sensing, collision, a teleport pad
+  * or a black hole) and skips the interaction phases for that robot until
+  * then. Movement still runs every tick, so the simulation evolves exactly as in the
+  * normal mode and recordings stay valid; sparse scenes just do far less work.
+  * </p>
+  *
+  * @param eventDriven {@code true} to schedule interactions by prediction
+  */
+ public void setEventDriven(boolean eventDriven) {
+     this.eventDriven = eventDriven;
+     crowded = false;
+     events.clear();
+     if (eventDriven) {
+         for (AbstractObject obj : objects) {
+             if (obj instanceof Robot) {
+                 ((Robot) obj).wake = tick;
+                 events.push(tick, obj.id);
              }
          }
      }
  }
 
+ /**
+  * Returns whether event-driven tick scheduling is on
+  *
+  * @return {@code true} if interactions are scheduled by prediction
+  */
+ public boolean isEventDriven() {
+     return eventDriven;
+ }
+
 
  /**
   * Retrieves a list of objects currently in the arena
+  * <p>
+  * The list is read-only; use {@link #addObject}, {@link #removeObject} and
+  * {@link #clearObjects} to change it so the id index stays consistent.
+  * </p>
+  * <p>
+  * Between the absorption phase and the end of a tick, the slots of robots
+  * absorbed in that tick hold {@code null}.
+  * </p>
   *
-  * @return An ArrayList containing all objects in the arena
+  * @return A read-only list containing all objects in the arena
   */
- public ArrayList<AbstractObject> getObjects() {
-     return objects;
+ public List<AbstractObject> getObjects() {
+     settle();
+     return objectsView;
  }
 
  /**
   * Creates a randomly positioned and directed {@code BumpSensorRobot}.
   * <p>
   * The robot is placed within the bounds of the arena with a fixed radius
-  * and a random speed and direction.
+  * and a random speed and direction. A robot removed earlier is reused if
+  * the pool holds one.
   * </p>
   *
-  * @return A new instance of {@code BumpSensorRobot}.
+  * @return A new or recycled instance of {@code BumpSensorRobot}.
   */
  public Robot createRandomRobot() {
      double x = random.nextInt(480) + 10; // Ensure robot is within bounds
@@ -155,7 +1624,8 @@ public class Arena {
      double radius = 15;
      double speed = 3;
      double direction = random.nextInt(360);
-     return new BumpSensorRobot(x, y, radius, speed, direction);
+     Robot robot = reuseRobot(BumpSensorRobot.class, x, y, radius, speed, direction);
+     return robot != null ? robot : new BumpSensorRobot(x, y, radius, speed, direction);
  }
 
  /**
@@ -165,7 +1635,7 @@ public class Arena {
   * and a random speed and direction.
   * </p>
   *
-  * @return A new instance of {@code WhiskerRobot}.
+  * @return A new or recycled instance of {@code WhiskerRobot}.
   */
  public Robot createRandomWhiskerRobot() {
      double x = random.nextInt(480) + 10; // Ensure robot is within bounds
@@ -173,7 +1643,8 @@ public class Arena {
      double radius = 15;
      double speed = 4;
      double direction = random.nextInt(360);
-     return new WhiskerRobot(x, y, radius, speed, direction);
+     Robot robot = reuseRobot(WhiskerRobot.class, x, y, radius, speed, direction);
+     return robot != null ? robot : new WhiskerRobot(x, y, radius, speed, direction);
  }
 
  /**
@@ -182,13 +1653,14 @@ public class Arena {
   * The obstacle is placed within the bounds of the arena with a fixed size.
   * </p>
   *
-  * @return A new instance of {@code Obstacle}.
+  * @return A new or recycled instance of {@code Obstacle}.
   */
  public Obstacle createRandomObstacle() {
      double x = random.nextInt(480) + 10; // Ensure obstacle is within bounds
      double y = random.nextInt(480) + 10; // Ensure obstacle is within bounds
      double radius = 20; // Size of the obstacle
-     return new Obstacle(x, y, radius);
+     Obstacle obj = reuse(Obstacle.class, x, y, radius);
+     return obj != null ? obj : new Obstacle(x, y, radius);
  }
 
  /**
@@ -198,7 +1670,7 @@ public class Arena {
   * random speed, and direction.
   * </p>
   *
-  * @return A new instance of {@code BeamSensorRobot}.
+  * @return A new or recycled instance of {@code BeamSensorRobot}.
   */
  public Robot createRandomBeamSensorRobot() {
      double x = random.nextInt(480) + 10;
@@ -206,7 +1678,26 @@ public class Arena {
      double radius = 10;
      double speed = 5;
      double direction = random.nextInt(360);
-     return new BeamSensorRobot(x, y, radius, speed, direction);
+     Robot robot = reuseRobot(BeamSensorRobot.class, x, y, radius, speed, direction);
+     return robot != null ? robot : new BeamSensorRobot(x, y, radius, speed, direction);
+ }
+
+ /**
+  * Creates a randomly positioned and directed {@code SwarmRobot}.
+  * <p>
+  * Swarm robots are small and slow so that large flocks fit into the arena.
+  * </p>
+  *
+  * @return A new or recycled instance of {@code SwarmRobot}.
+  */
+ public Robot createRandomSwarmRobot() {
+     double x = random.nextInt(480) + 10;
+     double y = random.nextInt(480) + 10;
+     double radius = 4;
+     double speed = 2;
+     double direction = random.nextInt(360);
+     Robot robot = reuseRobot(SwarmRobot.class, x, y, radius, speed, direction);
+     return robot != null ? robot : new SwarmRobot(x, y, radius, speed, direction);
  }
 
  /**
@@ -215,13 +1706,14 @@ public class Arena {
   * The teleport pad is placed within the bounds of the arena with a fixed radius.
   * </p>
   *
-  * @return A new instance of {@code TeleportPad}.
+  * @return A new or recycled instance of {@code TeleportPad}.
   */
  public TeleportPad createRandomTeleportPad() {
      double x = random.nextInt(480) + 10; // Ensure within bounds
      double y = random.nextInt(480) + 10; 
      double radius = 15; // Size of the teleport pad
-     return new TeleportPad(x, y, radius);
+     TeleportPad obj = reuse(TeleportPad.class, x, y, radius);
+     return obj != null ? obj : new TeleportPad(x, y, radius);
  }
 
  /**
@@ -230,13 +1722,52 @@ public class Arena {
   * The black hole is placed within the bounds of the arena with a fixed radius.
   * </p>
   *
-  * @return A new instance of {@code BlackHole}.
+  * @return A new or recycled instance of {@code BlackHole}.
   */
  public BlackHole createRandomBlackHole() {
      double x = random.nextInt(480) + 10; // Ensure within bounds
      double y = random.nextInt(480) + 10;
      double radius = 20; // Size of the BlackHole
-     return new BlackHole(x, y, radius);
+     BlackHole obj = reuse(BlackHole.class, x, y, radius);
+     return obj != null ? obj : new BlackHole(x, y, radius);
+ }
+
+ /**
+  * Creates an object of the given type with an explicit state.
+  * <p>
+  * Used when restoring saved arenas, where the type is stored as the
+  * simple class name of the object.
+  * </p>
+  *
+  * @param type      The simple class name of the object (e.g. {@code "WhiskerRobot"}).
+  * @param x         The x-coordinate of the object.
+  * @param y         The y-coordinate of the object.
+  * @param radius    The radius of the object.
+  * @param speed     The speed of the object (ignored for non-robots).
+  * @param direction The direction of the object in degrees (ignored for non-robots).
+  * @return A new object, or {@code null} if the type is unknown.
+  */
+ public AbstractObject createObject(String type, double x, double y, double radius, double speed, double direction) {
+     switch (type) {
+         case "BumpSensorRobot":
+             return new BumpSensorRobot(x, y, radius, speed, direction);
+         case "WhiskerRobot":
+             return new WhiskerRobot(x, y, radius, speed, direction);
+         case "BeamSensorRobot":
+             return new BeamSensorRobot(x, y, radius, speed, direction);
+         case "SwarmRobot":
+             return new SwarmRobot(x, y, radius, speed, direction);
+         case "ControlBot":
+             return new ControlBot(x, y, radius, speed, direction);
+         case "Obstacle":
+             return new Obstacle(x, y, radius);
+         case "TeleportPad":
+             return new TeleportPad(x, y, radius);
+         case "BlackHole":
+             return new BlackHole(x, y, radius);
+         default:
+             return null;
+     }
  }
 
  /**
@@ -245,7 +1776,7 @@ public class Arena {
   * @return The total count of robots in the arena.
   */
  public int getRobotsCount() {
-     return (int) objects.stream().filter(obj -> obj instanceof Robot).count();
+     return robotsCount;
  }
 
  /**
@@ -254,7 +1785,18 @@ public class Arena {
   * @return The total count of obstacles in the arena.
   */
  public int getObstaclesCount() {
-     return (int) objects.stream().filter(obj -> obj instanceof Obstacle).count();
+     return obstaclesCount;
+ }
+
+ /**
+  * Counts the objects of exactly the given type, without scanning the arena.
+  *
+  * @param type The concrete class, e.g. {@code WhiskerRobot.class}.
+  * @return The number of objects of that type in the arena.
+  */
+ public int getCount(Class<? extends AbstractObject> type) {
+     int[] n = typeCounts.get(type);
+     return n == null ? 0 : n[0];
  }
 }
 
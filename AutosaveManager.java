@@ -0,0 +1,444 @@
+package Robot_Sim;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes crash-safe checkpoints of the arena in the background.
+ * <p>
+ * The first checkpoint is a full base snapshot. Every following checkpoint is a
+ * delta that only lists objects that were added, removed, moved, turned or sped
+ * up or slowed down since the previous checkpoint. Once the chain of deltas reaches a configured length it is
+ * compacted into a new base snapshot and the old deltas are deleted.
+ * </p>
+ * <p>
+ * {@link #tick(Arena)} must be called from the thread that updates the arena (the
+ * JavaFX thread). It only copies the object state into flat arrays; diffing and
+ * file I/O happen on a single background thread.
+ * </p>
+ */
+public class AutosaveManager implements AutoCloseable {
+    private static final String BASE_FILE = "autosave-base.txt";
+    private static final String DELTA_PREFIX = "autosave-delta-";
+
+    private final Path directory;		// Directory holding the base and delta files
+    private final int intervalTicks;	// Number of ticks between checkpoints
+    private final int compactAfter;		// Number of deltas before the chain is compacted
+    private final ExecutorService writer;
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+
+    private long ticks = 0;
+
+    // Writer state, only touched on the background thread
+    private Snapshot previous;
+    private int generation = 0;		// Incremented with every base snapshot
+    private int deltaCount = 0;
+
+    /**
+     * Creates an autosave manager writing into the given directory.
+     *
+     * @param directory     The directory for checkpoint files. It is created if missing.
+     * @param intervalTicks The number of ticks between two checkpoints.
+     * @param compactAfter  The number of deltas after which a new base snapshot is written.
+     */
+    public AutosaveManager(Path directory, int intervalTicks, int compactAfter) {
+        this.directory = directory;
+        this.intervalTicks = Math.max(1, intervalTicks);
+        this.compactAfter = Math.max(1, compactAfter);
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "autosave-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Advances the autosave clock by one tick and takes a checkpoint when the
+     * interval has elapsed.
+     * <p>
+     * If the previous checkpoint is still being written the capture is skipped; the
+     * next delta then covers both intervals.
+     * </p>
+     *
+     * @param arena The arena to checkpoint.
+     */
+    public void tick(Arena arena) {
+        ticks++;
+        if (ticks % intervalTicks == 0) {
+            checkpoint(arena);
+        }
+    }
+
+    /**
+     * Captures the current arena state and hands it to the background writer.
+     *
+     * @param arena The arena to checkpoint.
+     */
+    public void checkpoint(Arena arena) {
+        if (!writing.compareAndSet(false, true)) {
+            return; // Previous checkpoint still in progress
+        }
+        submit(capture(arena));
+    }
+
+    /**
+     * Queues a snapshot on the background writer.
+     */
+    private void submit(Snapshot snapshot) {
+        writer.execute(() -> {
+            try {
+                write(snapshot);
+            } catch (IOException e) {
+                System.err.println("Failed to write autosave: " + e.getMessage());
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Copies the state of every object into a {@code Snapshot}.
+     *
+     * @param arena The arena to copy.
+     * @return A snapshot that is independent of the live objects.
+     */
+    private Snapshot capture(Arena arena) {
+        SimulationEvents.SnapshotEvent event = new SimulationEvents.SnapshotEvent();
+        event.begin();
+        List<AbstractObject> objects = arena.getObjects();
+        Snapshot snapshot = new Snapshot(objects.size());
+        for (AbstractObject obj : objects) {
+            snapshot.add(obj);
+        }
+        event.kind = "capture";
+        event.objects = snapshot.size;
+        event.commit();
+        return snapshot;
+    }
+
+    /**
+     * Writes either a base snapshot or a delta for the given snapshot.
+     *
+     * @param current The snapshot to persist.
+     * @throws IOException If a file cannot be written.
+     */
+    private void write(Snapshot current) throws IOException {
+        Files.createDirectories(directory);
+        if (previous == null) {
+            // Continue the generation count of an earlier run so its deltas never match
+            Path base = directory.resolve(BASE_FILE);
+            if (Files.exists(base)) {
+                generation = readGeneration(Files.readAllLines(base, StandardCharsets.UTF_8));
+            }
+        }
+        if (previous == null || deltaCount >= compactAfter) {
+            writeBase(current);
+        } else {
+            writeDelta(current);
+        }
+        previous = current;
+    }
+
+    /**
+     * Writes a full base snapshot and removes the deltas it replaces.
+     * <p>
+     * The first line of the base holds its generation. Deltas carry the generation
+     * in their file name, so deltas left behind by a crash during compaction are
+     * never applied to a newer base.
+     * </p>
+     */
+    private void writeBase(Snapshot current) throws IOException {
+        SimulationEvents.SnapshotEvent event = new SimulationEvents.SnapshotEvent();
+        event.begin();
+        generation++;
+        StringBuilder data = new StringBuilder();
+        data.append("#").append(generation).append("\n");
+        for (int i = 0; i < current.size; i++) {
+            appendState(data.append(current.ids[i]).append(",").append(current.types[i]).append(","), current, i);
+        }
+        atomicWrite(directory.resolve(BASE_FILE), data);
+
+        // The base now contains everything the old deltas described
+        try (DirectoryStream<Path> deltas = Files.newDirectoryStream(directory, DELTA_PREFIX + "*.txt")) {
+            for (Path delta : deltas) {
+                Files.deleteIfExists(delta);
+            }
+        }
+        deltaCount = 0;
+        event.kind = "base";
+        event.objects = current.size;
+        event.bytes = data.length();
+        event.commit();
+    }
+
+    /**
+     * Writes the differences between the previous and the current snapshot.
+     */
+    private void writeDelta(Snapshot current) throws IOException {
+        SimulationEvents.SnapshotEvent event = new SimulationEvents.SnapshotEvent();
+        event.begin();
+        Map<Integer, Integer> before = new HashMap<>();
+        for (int i = 0; i < previous.size; i++) {
+            before.put(previous.ids[i], i);
+        }
+
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < current.size; i++) {
+            Integer old = before.remove(current.ids[i]);
+            if (old == null || current.exit[i] != previous.exit[old]) {
+                // Added since the previous checkpoint, or a pad relinked; restoring replaces the object
+                appendState(data.append("+,").append(current.ids[i]).append(",")
+                        .append(current.types[i]).append(","), current, i);
+            } else if (current.x[i] != previous.x[old] || current.y[i] != previous.y[old]
+                    || current.direction[i] != previous.direction[old] || current.speed[i] != previous.speed[old]) {
+                // Moved, turned or changed speed since the previous checkpoint
+                data.append("~,").append(current.ids[i]).append(",")
+                        .append(current.x[i]).append(",")
+                        .append(current.y[i]).append(",")
+                        .append(current.direction[i]).append(",")
+                        .append(current.speed[i]).append("\n");
+            }
+        }
+        for (Integer removed : before.keySet()) {
+            data.append("-,").append(removed).append("\n");
+        }
+
+        deltaCount++;
+        atomicWrite(directory.resolve(String.format("%s%05d.txt", deltaPrefix(generation), deltaCount)), data);
+        event.kind = "delta";
+        event.objects = current.size;
+        event.bytes = data.length();
+        event.commit();
+    }
+
+    /**
+     * Reads the generation from the header line of a base snapshot.
+     */
+    private static int readGeneration(List<String> baseLines) {
+        if (baseLines.isEmpty() || !baseLines.get(0).startsWith("#")) {
+            return 0;
+        }
+        return Integer.parseInt(baseLines.get(0).substring(1));
+    }
+
+    /**
+     * Returns the file name prefix of the deltas belonging to a base generation.
+     */
+    private static String deltaPrefix(int generation) {
+        return DELTA_PREFIX + generation + "-";
+    }
+
+    /**
+     * Appends {@code x,y,radius,speed,direction} of one object and ends the line.
+     * <p>
+     * Black holes add {@code ,pull} and teleport pads {@code ,exitId}.
+     * </p>
+     */
+    private static void appendState(StringBuilder data, Snapshot snapshot, int i) {
+        data.append(snapshot.x[i]).append(",")
+                .append(snapshot.y[i]).append(",")
+                .append(snapshot.radius[i]).append(",")
+                .append(snapshot.speed[i]).append(",")
+                .append(snapshot.direction[i]);
+        if (snapshot.types[i].equals("BlackHole")) {
+            data.append(",").append(snapshot.pull[i]);
+        } else if (snapshot.types[i].equals("TeleportPad")) {
+            data.append(",").append(snapshot.exit[i]);
+        }
+        data.append("\n");
+    }
+
+    /**
+     * Writes a file through a temporary file so a crash never leaves a partial checkpoint.
+     */
+    private static void atomicWrite(Path target, CharSequence data) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.append(data);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores an arena from the base snapshot and all deltas in a directory.
+     * <p>
+     * The arena is cleared first. Must be called on the simulation thread.
+     * </p>
+     *
+     * @param directory The directory containing the checkpoint files.
+     * @param arena     The arena to restore into.
+     * @return {@code true} if a base snapshot was found and restored.
+     * @throws IOException If a checkpoint file cannot be read.
+     */
+    public static boolean restore(Path directory, Arena arena) throws IOException {
+        Path base = directory.resolve(BASE_FILE);
+        if (!Files.exists(base)) {
+            return false;
+        }
+
+        // Rebuild the object list by id, keeping insertion order
+        Map<Integer, AbstractObject> restored = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(base, StandardCharsets.UTF_8);
+        int generation = readGeneration(lines);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] parts = line.split(",");
+            restored.put(Integer.parseInt(parts[0]), createFromParts(arena, parts, 1));
+        }
+
+        List<Path> deltas = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, deltaPrefix(generation) + "*.txt")) {
+            for (Path delta : stream) {
+                deltas.add(delta);
+            }
+        }
+        Collections.sort(deltas);
+        for (Path delta : deltas) {
+            for (String line : Files.readAllLines(delta, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(",");
+                int key = Integer.parseInt(parts[1]);
+                switch (parts[0]) {
+                    case "+":
+                        restored.put(key, createFromParts(arena, parts, 2));
+                        break;
+                    case "-":
+                        restored.remove(key);
+                        break;
+                    case "~":
+                        AbstractObject obj = restored.get(key);
+                        if (obj != null) {
+                            obj.x = Double.parseDouble(parts[2]);
+                            obj.y = Double.parseDouble(parts[3]);
+                            if (obj instanceof Robot) {
+                                ((Robot) obj).direction = Double.parseDouble(parts[4]);
+                                if (parts.length > 5) { // Deltas of older runs lack the speed
+                                    ((Robot) obj).speed = Double.parseDouble(parts[5]);
+                                }
+                            }
+                        }
+                        break;
+                }
+            }
+        }
+
+        arena.clearObjects();
+        SimulationEvents.BulkEditEvent event = new SimulationEvents.BulkEditEvent();
+        event.begin();
+        for (Map.Entry<Integer, AbstractObject> entry : restored.entrySet()) {
+            AbstractObject obj = entry.getValue();
+            if (obj != null) {
+                obj.id = entry.getKey(); // Keep the saved id
+                arena.addObject(obj);
+            }
+        }
+        event.operation = "restore";
+        event.objects = arena.getObjects().size();
+        event.commit();
+        return true;
+    }
+
+    /**
+     * Creates an object from {@code type,x,y,radius,speed,direction[,pull|,exitId]} starting at {@code offset}.
+     * <p>
+     * Checkpoints written before black holes had a pull lack it; those holes get the
+     * default. Pads of such checkpoints are restored unlinked.
+     * </p>
+     */
+    private static AbstractObject createFromParts(Arena arena, String[] parts, int offset) {
+        AbstractObject obj = arena.createObject(parts[offset],
+                Double.parseDouble(parts[offset + 1]),
+                Double.parseDouble(parts[offset + 2]),
+                Double.parseDouble(parts[offset + 3]),
+                Double.parseDouble(parts[offset + 4]),
+                Double.parseDouble(parts[offset + 5]));
+        if (obj instanceof BlackHole && parts.length > offset + 6) {
+            ((BlackHole) obj).setPull(Double.parseDouble(parts[offset + 6]));
+        } else if (obj instanceof TeleportPad && parts.length > offset + 6) {
+            ((TeleportPad) obj).exitId = Integer.parseInt(parts[offset + 6]); // Saved ids are kept, so the link holds
+        }
+        return obj;
+    }
+
+    /**
+     * Writes a final checkpoint and stops the background writer.
+     *
+     * @param arena The arena to checkpoint before shutting down.
+     */
+    public void close(Arena arena) {
+        writing.set(true);
+        submit(capture(arena));
+        close();
+    }
+
+    /**
+     * Stops the background writer after pending checkpoints are written.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Flat copy of the arena state at one point in time.
+     */
+    private static final class Snapshot {
+        final int[] ids;
+        final String[] types;
+        final double[] x;
+        final double[] y;
+        final double[] radius;
+        final double[] speed;
+        final double[] direction;
+        final double[] pull;		// Pull of black holes, unused for other types
+        final int[] exit;			// Exit pad id of teleport pads, unused for other types
+        int size = 0;
+
+        Snapshot(int capacity) {
+            ids = new int[capacity];
+            types = new String[capacity];
+            x = new double[capacity];
+            y = new double[capacity];
+            radius = new double[capacity];
+            speed = new double[capacity];
+            direction = new double[capacity];
+            pull = new double[capacity];
+            exit = new int[capacity];
+        }
+
+        void add(AbstractObject obj) {
+            ids[size] = obj.getId();
+            types[size] = obj.getClass().getSimpleName();
+            x[size] = obj.getX();
+            y[size] = obj.getY();
+            radius[size] = obj.getRadius();
+            if (obj instanceof Robot) {
+                speed[size] = ((Robot) obj).getSpeed();
+                direction[size] = ((Robot) obj).getDirection();
+            } else if (obj instanceof BlackHole) {
+                pull[size] = ((BlackHole) obj).getPull();
+            } else if (obj instanceof TeleportPad) {
+                exit[size] = ((TeleportPad) obj).getExitId();
+            }
+            size++;
+        }
+    }
+}
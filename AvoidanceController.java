@@ -0,0 +1,51 @@
+package Robot_Sim;
+
+/**
+ * Turns a robot by a fixed angle for every obstacle within its sensor range.
+ * <p>
+ * This is the behaviour {@code WhiskerRobot} and {@code BeamSensorRobot} used to
+ * hard-code: whiskers reach 10 beyond the radii and turn 90 degrees, the beam
+ * reaches 20 and turns 67 degrees.
+ * </p>
+ */
+public class AvoidanceController implements RobotController {
+    /** The default controller of {@code WhiskerRobot}. */
+    public static final AvoidanceController WHISKER = new AvoidanceController(90, 10);
+    /** The default controller of {@code BeamSensorRobot}. */
+    public static final AvoidanceController BEAM = new AvoidanceController(67, 20);
+
+    private final double turn;		// Degrees turned per obstacle
+    private final double range;		// Sensor reach beyond the radii
+
+    /**
+     * Creates an avoidance controller.
+     *
+     * @param turn  The angle in degrees to turn for each obstacle in range.
+     * @param range How far beyond the two radii an obstacle is detected.
+     */
+    public AvoidanceController(double turn, double range) {
+        this.turn = turn;
+        this.range = range;
+    }
+
+    @Override
+    public void control(SensorBatch sensors, CommandBatch commands, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double direction = commands.direction[i];
+            for (int c = 0; c < sensors.contacts[i]; c++) {
+                direction = (direction + turn) % 360; // One turn per obstacle, normalised each time
+            }
+            commands.direction[i] = direction;
+        }
+    }
+
+    @Override
+    public double getSensorRange() {
+        return range;
+    }
+
+    @Override
+    public boolean isReactive() {
+        return true;
+    }
+}
@@ -29,51 +29,23 @@ public class BeamSensorRobot extends Robot {
     /**
      * Activates the beam sensor.
      * <p>
-     * This technique is used periodically throughout the simulation to identify and react
-     * to obstacles.
+     * Obstacle avoidance is done by the robot's controller in the arena's control
+     * phase ({@link AvoidanceController#BEAM} by default): the beam reaches 20 beyond the
+     * radii and the robot turns 67 degrees for every obstacle it detects.
      * </p>
+     *
+     * @param arena The arena containing all objects.
      */
     @Override
-    public void sense() {
-        System.out.println("Beam sensor activated");
+    public void sense(Arena arena) {
     }
 
     /**
-     * Avoids obstacles and updates its location to update the robot's state.
-     * <p>
-     * The robot checks for nearby obstacles using its beam sensor and turns 67 degrees
-     * to avoid collisions.
-     * </p>
+     * Includes the beam, which reaches 20 beyond the body.
      */
     @Override
-    public void update() {
-        avoidObstacles(Arena.getInstance());
-        super.update();
-    }
-
-    /**
-     * Detects and avoids nearby obstacles in the arena.
-     * <p>
-     * If the robot detects an obstacle within its beam range, it turns 67 degrees to
-     * avoid the obstacle.
-     * </p>
-     *
-     * @param arena The arena containing all objects.
-     */
-    private void avoidObstacles(Arena arena) {
-        for (AbstractObject item : arena.getObjects()) {
-            if (item instanceof Obstacle) {
-                double dx = item.getX() - this.x;
-                double dy = item.getY() - this.y;
-                double distance = Math.sqrt(dx * dx + dy * dy);
-
-                // Check if obstacle is in the robot's path (within a certain distance threshold)
-                if (distance < this.radius + item.getRadius() + 20) {
-                    this.direction += 67; // Turn 67 degrees to avoid the obstacle
-                    this.direction = this.direction % 360; // Normalise the direction
-                }
-            }
-        }
+    public double getRenderRadius() {
+        return Math.max(super.getRenderRadius(), radius + 20);
     }
 
     /**
@@ -9,18 +9,78 @@ import javafx.scene.paint.Color;
  * The BlackHole is a stationary obstacle that absorbs any robot
  * entering its radius, deleting it from the simulation
  * </p>
+ * <p>
+ * It also pulls robots towards its center within {@link #getInfluenceRadius()}. The
+ * pull is strongest next to the hole and fades linearly to nothing at the edge of
+ * the influence radius. The arena samples it from a {@link GravityField}.
+ * </p>
  */
 public class BlackHole extends AbstractObject {
+    /** The pull of a hole in pixels per tick, right at its center. */
+    public static final double DEFAULT_PULL = 0.5;
+    /** The influence radius as a multiple of the hole's radius. */
+    public static final double INFLUENCE_FACTOR = 4;
+
+    private double pull;
 
     /**
-     * Constructs a {@code BlackHole} with the specified position and radius.
+     * Constructs a {@code BlackHole} with the specified position and radius and the default pull.
      *
      * @param x      The x-coordinate of the center of the BlackHole.
      * @param y      The y-coordinate of the center of the BlackHole.
      * @param radius The radius of the BlackHole.
      */
     public BlackHole(double x, double y, double radius) {
+        this(x, y, radius, DEFAULT_PULL);
+    }
+
+    /**
+     * Constructs a {@code BlackHole} with the specified position, radius and pull.
+     *
+     * @param x      The x-coordinate of the center of the BlackHole.
+     * @param y      The y-coordinate of the center of the BlackHole.
+     * @param radius The radius of the BlackHole.
+     * @param pull   The pull at the center in pixels per tick, 0 for a hole that only absorbs.
+     */
+    public BlackHole(double x, double y, double radius, double pull) {
         super(x, y, radius);
+        this.pull = pull;
+    }
+
+    /**
+     * Gives a recycled hole a new position and size and the default pull.
+     */
+    @Override
+    void reset(double x, double y, double radius) {
+        super.reset(x, y, radius);
+        this.pull = DEFAULT_PULL;
+    }
+
+    /**
+     * Returns the pull of the hole.
+     *
+     * @return The pull at the center in pixels per tick.
+     */
+    public double getPull() {
+        return pull;
+    }
+
+    /**
+     * Sets the pull of a hole restored from a file or recording, before it is added to an arena.
+     *
+     * @param pull The pull at the center in pixels per tick, 0 for a hole that only absorbs.
+     */
+    void setPull(double pull) {
+        this.pull = pull;
+    }
+
+    /**
+     * Returns the distance from the center within which the hole pulls robots.
+     *
+     * @return The influence radius.
+     */
+    public double getInfluenceRadius() {
+        return radius * INFLUENCE_FACTOR;
     }
 
     /**
@@ -52,6 +112,14 @@ public class BlackHole extends AbstractObject {
         return distance < this.radius + robot.getRadius();
     }
 
+    /**
+     * Includes the ring that marks the edge of the pull.
+     */
+    @Override
+    public double getRenderRadius() {
+        return pull > 0 ? Math.max(radius, getInfluenceRadius() + 0.5) : radius;
+    }
+
     /**
      * Renders the BlackHole on the simulation canvas.
      * <p>
@@ -65,5 +133,13 @@ public class BlackHole extends AbstractObject {
         // Draw the BlackHole
         gc.setFill(Color.BLACK);
         gc.fillOval(x - radius, y - radius, radius * 2, radius * 2);
+
+        // Draw the edge of its pull
+        if (pull > 0) {
+            double influence = getInfluenceRadius();
+            gc.setStroke(Color.rgb(0, 0, 0, 0.2));
+            gc.setLineWidth(1);
+            gc.strokeOval(x - influence, y - influence, influence * 2, influence * 2);
+        }
     }
 }
@@ -28,12 +28,13 @@ public class BumpSensorRobot extends Robot {
     /**
      * Activates the bump sensor.
      * <p>
-     * This method simulates the activation of bump sensors for detecting collisions.
+     * Bump sensors only react on contact, which the arena reports through
+     * {@code handleCollision}, so there is nothing to sense ahead of time.
      * </p>
      */
     @Override
-    public void sense() {
-        System.out.println("Bump sensor activated");
+    public void sense(Arena arena) {
+        // Bump sensing happens in handleCollision
     }
 
     /**
@@ -0,0 +1,28 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Heading and speed commands for a batch of robots, written by a {@link RobotController}.
+ * <p>
+ * Index {@code i} belongs to the same robot as index {@code i} of the
+ * {@link SensorBatch} passed alongside.
+ * </p>
+ */
+public class CommandBatch {
+    /** The new direction of each robot in degrees. */
+    public double[] direction = new double[0];
+    /** The new speed of each robot. */
+    public double[] speed = new double[0];
+
+    /**
+     * Makes room for {@code n} robots.
+     */
+    void resize(int n) {
+        if (direction.length < n) {
+            int capacity = Math.max(n, direction.length * 2);
+            direction = Arrays.copyOf(direction, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+        }
+    }
+}
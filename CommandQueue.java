@@ -0,0 +1,82 @@
+package Robot_Sim;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free queue of arena edits, written by any thread and drained by the thread running the ticks.
+ * <p>
+ * Producers append a node with a single atomic swap of the tail and then link it
+ * to its predecessor, so {@link #offer} never blocks or retries. Only the
+ * simulation thread calls {@link #drain}, which applies the commands in the order
+ * they were offered.
+ * </p>
+ * <p>
+ * A drain applies exactly the commands offered before it started. Commands offered
+ * while it runs wait for the next drain, so producers cannot keep a tick from
+ * starting.
+ * </p>
+ */
+class CommandQueue {
+    private static final class Node {
+        Consumer<Arena> command;	// Cleared once applied
+        volatile Node next;
+
+        Node(Consumer<Arena> command) {
+            this.command = command;
+        }
+    }
+
+    private final AtomicReference<Node> tail;
+    private Node head;		// Last applied node, only touched by the draining thread
+
+    CommandQueue() {
+        head = new Node(null);
+        tail = new AtomicReference<>(head);
+    }
+
+    /**
+     * Appends a command; safe to call from any thread.
+     */
+    void offer(Consumer<Arena> command) {
+        Node node = new Node(command);
+        tail.getAndSet(node).next = node;
+    }
+
+    /**
+     * Applies the commands offered so far to the arena.
+     * <p>
+     * A command that throws is reported and skipped; the others still run.
+     * </p>
+     *
+     * @return The number of commands applied.
+     */
+    int drain(Arena arena) {
+        Node last = tail.get();
+        int applied = 0;
+        while (head != last) {
+            Node next = head.next;
+            while (next == null) {
+                Thread.onSpinWait(); // A producer swapped the tail but has not linked its node yet
+                next = head.next;
+            }
+            head = next;
+            Consumer<Arena> command = next.command;
+            next.command = null;
+            try {
+                command.accept(arena);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to apply arena command: " + e);
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Returns whether no command is waiting.
+     */
+    boolean isEmpty() {
+        return head == tail.get();
+    }
+}
@@ -0,0 +1,182 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Pairs of objects that touched in the last collision phase, kept from tick to tick.
+ * <p>
+ * Contacts are keyed by the ids of both objects, smaller id first, in an open
+ * addressing table of primitive arrays. Each collision phase touches the pairs it
+ * finds, which reports them as {@link State#BEGIN} or {@link State#PERSIST}; the
+ * sweep at the end of the tick re-validates the pairs that were not found, with a
+ * single overlap test each, and reports those that no longer touch as
+ * {@link State#END}. Looking up whether two objects touch costs O(1).
+ * </p>
+ */
+public class ContactCache {
+    /**
+     * How a contact changed in a tick.
+     */
+    public enum State {
+        /** The objects started touching in this tick. */
+        BEGIN,
+        /** The objects touched in the previous tick and still do. */
+        PERSIST,
+        /** The objects touched in the previous tick but no longer do, or one of them was removed. */
+        END
+    }
+
+    /**
+     * Receives contact changes, on the thread running the ticks.
+     */
+    public interface Listener {
+        /**
+         * Called once per contact and tick.
+         *
+         * @param firstId  The smaller id of the two objects.
+         * @param secondId The larger id of the two objects.
+         * @param state    How the contact changed.
+         */
+        void onContact(int firstId, int secondId, State state);
+    }
+
+    private long[] keys = new long[64];	// 0 marks an empty slot, ids start at 1
+    private long[] seen = new long[64];	// Last tick the contact was found
+    private long[] spareKeys = new long[64];
+    private long[] spareSeen = new long[64];
+    private int size = 0;
+
+    private static long key(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    private int slot(long key, long[] table) {
+        int mask = table.length - 1;
+        int i = (int) (key ^ (key >>> 29)) * 0x9E3779B9 & mask;
+        while (table[i] != 0 && table[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Records that two objects touch in this tick.
+     *
+     * @param a    The id of one object.
+     * @param b    The id of the other object.
+     * @param tick The current tick.
+     * @return {@link State#BEGIN} for a new contact, otherwise {@link State#PERSIST}.
+     */
+    State touch(int a, int b, long tick) {
+        long key = key(a, b);
+        int i = slot(key, keys);
+        if (keys[i] == key) {
+            seen[i] = tick;
+            return State.PERSIST;
+        }
+        if (2 * (size + 1) > keys.length) {
+            resize(keys.length * 2);
+            i = slot(key, keys);
+        }
+        keys[i] = key;
+        seen[i] = tick;
+        size++;
+        return State.BEGIN;
+    }
+
+    /**
+     * Ends the contacts not found in this tick, unless their objects still overlap.
+     *
+     * @param tick     The current tick.
+     * @param arena    The arena, to look the objects up by id.
+     * @param listener Told about every contact that persists or ends here, or {@code null}.
+     */
+    void sweep(long tick, Arena arena, Listener listener) {
+        if (size == 0) {
+            return;
+        }
+        int kept = 0;
+        Arrays.fill(spareKeys, 0);
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+            if (key == 0) {
+                continue;
+            }
+            int first = (int) (key >>> 32);
+            int second = (int) key;
+            if (seen[i] != tick) {
+                AbstractObject a = arena.getObject(first);
+                AbstractObject b = arena.getObject(second);
+                boolean touching = a != null && b != null && overlap(a, b);
+                if (listener != null) {
+                    listener.onContact(first, second, touching ? State.PERSIST : State.END);
+                }
+                if (!touching) {
+                    continue;
+                }
+            }
+            int j = slot(key, spareKeys);
+            spareKeys[j] = key;
+            spareSeen[j] = tick;
+            kept++;
+        }
+        long[] swap = keys;
+        keys = spareKeys;
+        spareKeys = swap;
+        swap = seen;
+        seen = spareSeen;
+        spareSeen = swap;
+        size = kept;
+    }
+
+    private static boolean overlap(AbstractObject a, AbstractObject b) {
+        double dx = a.x - b.x;
+        double dy = a.y - b.y;
+        return Math.sqrt(dx * dx + dy * dy) < a.radius + b.radius;
+    }
+
+    /**
+     * Checks whether two objects touched in the last collision phase.
+     *
+     * @param a The id of one object.
+     * @param b The id of the other object.
+     * @return {@code true} if the pair is a current contact.
+     */
+    public boolean contains(int a, int b) {
+        long key = key(a, b);
+        return keys[slot(key, keys)] == key;
+    }
+
+    /**
+     * Returns the number of current contacts.
+     *
+     * @return The number of touching pairs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forgets every contact without reporting it, e.g. when the arena is cleared.
+     */
+    void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldSeen = seen;
+        keys = new long[capacity];
+        seen = new long[capacity];
+        spareKeys = new long[capacity];
+        spareSeen = new long[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = slot(oldKeys[i], keys);
+                keys[j] = oldKeys[i];
+                seen[j] = oldSeen[i];
+            }
+        }
+    }
+}
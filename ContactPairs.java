@@ -0,0 +1,115 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * The touching pairs found by one collision phase, each unordered pair once.
+ * <p>
+ * Objects are referred to by their index in the {@link PackedBodies} of the phase.
+ * A robot that has run its overlap query is marked as queried; later queries skip
+ * it, because the pair was already found from its side. Once all pairs are known,
+ * {@link #group} lists the partners of every object in ascending order, so each
+ * robot can handle its contacts in list order of the other object, exactly as if
+ * it had tested every other object itself.
+ * </p>
+ */
+class ContactPairs {
+    int[] slot = new int[16];				// Packed index by arena list index, -1 if not packed
+    boolean[] queried = new boolean[16];	// By packed index, set once a robot ran its query
+    private int[] first = new int[64];
+    private int[] second = new int[64];
+    private int size = 0;
+    private int[] start = new int[17];		// Partners of packed index i are partners[start[i]..start[i + 1])
+    private int[] partners = new int[128];
+    private int[] cursor = new int[16];		// Next free position per packed index while grouping
+
+    /**
+     * Prepares for a phase over the given number of arena objects, which bounds the number of packed bodies.
+     */
+    void reset(int objects) {
+        if (slot.length < objects) {
+            slot = new int[Math.max(objects, slot.length * 2)];
+            queried = new boolean[slot.length];
+        } else {
+            Arrays.fill(queried, 0, objects, false);
+        }
+        Arrays.fill(slot, 0, objects, -1);
+        size = 0;
+    }
+
+    /**
+     * Adds a touching pair of packed indices.
+     */
+    void add(int i, int j) {
+        if (size == first.length) {
+            first = Arrays.copyOf(first, size * 2);
+            second = Arrays.copyOf(second, size * 2);
+        }
+        first[size] = i;
+        second[size] = j;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int first(int pair) {
+        return first[pair];
+    }
+
+    int second(int pair) {
+        return second[pair];
+    }
+
+    /**
+     * Builds the sorted partner lists of every packed index from the pairs.
+     */
+    void group(int bodies) {
+        if (start.length < bodies + 1) {
+            start = new int[Math.max(bodies + 1, start.length * 2)];
+        }
+        Arrays.fill(start, 0, bodies + 1, 0);
+        for (int p = 0; p < size; p++) {
+            start[first[p] + 1]++;
+            start[second[p] + 1]++;
+        }
+        for (int i = 0; i < bodies; i++) {
+            start[i + 1] += start[i];
+        }
+        if (partners.length < 2 * size) {
+            partners = new int[Math.max(2 * size, partners.length * 2)];
+        }
+        if (cursor.length < bodies) {
+            cursor = new int[Math.max(bodies, cursor.length * 2)];
+        }
+        System.arraycopy(start, 0, cursor, 0, bodies);
+        for (int p = 0; p < size; p++) {
+            partners[cursor[first[p]]++] = second[p];
+            partners[cursor[second[p]]++] = first[p];
+        }
+        for (int i = 0; i < bodies; i++) {
+            if (start[i + 1] - start[i] > 1) {
+                Arrays.sort(partners, start[i], start[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Returns the first position of an object's partners in {@link #partner}.
+     */
+    int start(int i) {
+        return start[i];
+    }
+
+    /**
+     * Returns the position after the last of an object's partners.
+     */
+    int end(int i) {
+        return start[i + 1];
+    }
+
+    int partner(int k) {
+        return partners[k];
+    }
+}
@@ -12,6 +12,7 @@ import javafx.scene.paint.Color;
  * </p>
  */
 public class ControlBot extends Robot {
+    private boolean isMovingUp = false, isMovingDown = false, isMovingLeft = false, isMovingRight = false;
 
     /**
      * Constructs a {@code ControlBot} with specified position, radius, speed, and direction.
@@ -39,6 +40,42 @@ public class ControlBot extends Robot {
         // Movement is only handled via player input (W, A, S, D).
     }
 
+    /**
+     * Records whether one of the movement keys (W, A, S, D) is held down.
+     *
+     * @param key     The movement key, one of {@code 'W'}, {@code 'A'}, {@code 'S'} or {@code 'D'}.
+     * @param pressed {@code true} if the key is pressed, {@code false} if it was released.
+     */
+    public void setKeyState(char key, boolean pressed) {
+        switch (key) {
+            case 'W':
+                isMovingUp = pressed;
+                break;
+            case 'S':
+                isMovingDown = pressed;
+                break;
+            case 'A':
+                isMovingLeft = pressed;
+                break;
+            case 'D':
+                isMovingRight = pressed;
+                break;
+        }
+    }
+
+    /**
+     * Moves the robot once in every direction whose key is held down.
+     * <p>
+     * Called once per frame after the arena has been updated.
+     * </p>
+     */
+    public void applyInput() {
+        if (isMovingUp) moveUp();
+        if (isMovingDown) moveDown();
+        if (isMovingLeft) moveLeft();
+        if (isMovingRight) moveRight();
+    }
+
     /**
      * Moves the robot upward by decreasing its y-coordinate.
      */
@@ -75,7 +112,7 @@ public class ControlBot extends Robot {
      * </p>
      */
     @Override
-    public void sense() {
+    public void sense(Arena arena) {
         // ControlBot does not sense anything by default.
     }
 
@@ -0,0 +1,248 @@
+package Robot_Sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the {@link RobotController}s of an arena once per tick.
+ * <p>
+ * Robots are grouped by controller, so each controller is called once per chunk of
+ * robots rather than once per robot. For every chunk the phase gathers the
+ * readings into a {@link SensorBatch}, lets the controller fill a
+ * {@link CommandBatch} and writes the commands back to the robots. A controller
+ * only changes its own robots and the readings only depend on obstacles, which do
+ * not move, so chunks are independent: groups of at least {@code PARALLEL_THRESHOLD}
+ * robots run their chunks on the common fork/join pool, and the result does not
+ * depend on the order in which chunks finish.
+ * </p>
+ * <p>
+ * Controllers that read their robots' nearest neighbours get them from a
+ * {@link NeighbourGrid} snapshot taken once before the first controller runs, so
+ * every robot sees the others as they were at the start of the phase, whichever
+ * chunk or group ran first.
+ * </p>
+ */
+class ControllerPhase {
+    private static final int CHUNK = 1024;		// Robots handed to a controller per call
+    private static final int PARALLEL_THRESHOLD = 4096;	// Smallest group that is split over threads
+
+    private final Map<RobotController, Group> groups = new LinkedHashMap<>();
+    private final ArrayList<Robot> retuned = new ArrayList<>();	// Robots whose speed was changed in the last run
+    private double[] obstacleX = new double[16];
+    private double[] obstacleY = new double[16];
+    private double[] obstacleRadius = new double[16];
+    private int obstacles = 0;
+    private final NeighbourGrid neighbourIndex;	// Robots by position, shared with the arena's queries
+
+    /**
+     * Creates the phase.
+     *
+     * @param neighbourIndex The arena's robot index, rebuilt here when a controller reads neighbours.
+     */
+    ControllerPhase(NeighbourGrid neighbourIndex) {
+        this.neighbourIndex = neighbourIndex;
+    }
+
+    /**
+     * The robots sharing one controller, with the batches reused from tick to tick.
+     */
+    private static class Group {
+        final RobotController controller;
+        final boolean skipIdle;		// Robots that are asleep or not due can be left out
+        final ArrayList<Robot> robots = new ArrayList<>();
+        final SensorBatch sensors = new SensorBatch();
+        final CommandBatch commands = new CommandBatch();
+        final int neighbours;		// Nearest robots read per robot
+        NeighbourResult[] results = new NeighbourResult[0];	// Query buffer per chunk, chunks may run in parallel
+
+        Group(RobotController controller, boolean skipIdle) {
+            this.controller = controller;
+            this.skipIdle = skipIdle;
+            this.neighbours = Math.max(0, controller.getNeighbourCount());
+        }
+    }
+
+    /**
+     * Runs every controller for the robots that need it this tick.
+     * <p>
+     * Reactive controllers whose sensor range lies within {@code idleRange} are skipped
+     * for robots that cannot have an obstacle in range: sleeping robots, and robots
+     * that are not due when {@code due} is set. Every other controlled robot runs.
+     * </p>
+     *
+     * @param objects   The objects of the arena, in list order.
+     * @param due       {@code true} if only robots with {@code wake <= tick} can be near an obstacle.
+     * @param tick      The current tick.
+     * @param idleRange The reach beyond the radii within which an idle robot is known to be clear.
+     * @return The robots whose speed changed, in list order. The list is reused by the next run.
+     */
+    List<Robot> run(List<AbstractObject> objects, boolean due, long tick, double idleRange) {
+        retuned.clear();
+        obstacles = 0;
+        for (Group group : groups.values()) {
+            group.robots.clear();
+        }
+        for (AbstractObject obj : objects) {
+            if (obj instanceof Obstacle) {
+                addObstacle(obj);
+            } else if (obj instanceof Robot) {
+                Robot robot = (Robot) obj;
+                if (robot.controller == null || robot.sleeping) {
+                    continue;
+                }
+                Group group = groups.get(robot.controller);
+                if (group == null) {
+                    RobotController controller = robot.controller;
+                    group = new Group(controller, controller.isReactive() && controller.getSensorRange() <= idleRange);
+                    groups.put(controller, group);
+                }
+                if (!group.skipIdle || !due || robot.wake <= tick) {
+                    group.robots.add(robot);
+                }
+            }
+        }
+
+        for (Group group : groups.values()) {
+            if (group.neighbours > 0 && !group.robots.isEmpty()) {
+                neighbourIndex.ensure(objects); // Before any controller turns a robot
+                break;
+            }
+        }
+
+        for (Iterator<Group> it = groups.values().iterator(); it.hasNext(); ) {
+            Group group = it.next();
+            int n = group.robots.size();
+            if (n == 0) {
+                it.remove(); // Controller no longer in use
+                continue;
+            }
+            group.sensors.resize(n);
+            group.commands.resize(n);
+            group.controller.prepare();
+            int chunks = (n + CHUNK - 1) / CHUNK;
+            if (group.neighbours > 0) {
+                group.sensors.resizeNeighbours(group.neighbours);
+                if (group.results.length < chunks) {
+                    group.results = Arrays.copyOf(group.results, chunks);
+                    for (int c = 0; c < chunks; c++) {
+                        if (group.results[c] == null) {
+                            group.results[c] = new NeighbourResult(group.neighbours);
+                        }
+                    }
+                }
+            }
+            if (n >= PARALLEL_THRESHOLD) {
+                IntStream.range(0, chunks).parallel().forEach(c -> runChunk(group, c * CHUNK, Math.min(n, (c + 1) * CHUNK)));
+            } else {
+                for (int c = 0; c < chunks; c++) {
+                    runChunk(group, c * CHUNK, Math.min(n, (c + 1) * CHUNK));
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (group.commands.speed[i] != group.sensors.speed[i]) {
+                    retuned.add(group.robots.get(i));
+                }
+            }
+        }
+        if (groups.size() > 1 && !retuned.isEmpty()) {
+            retuned.sort((a, b) -> Integer.compare(a.index, b.index));
+        }
+        return retuned;
+    }
+
+    /**
+     * Gathers, controls and applies one chunk of a group.
+     */
+    private void runChunk(Group group, int from, int to) {
+        SensorBatch sensors = group.sensors;
+        CommandBatch commands = group.commands;
+        double range = group.controller.getSensorRange();
+        int neighbours = group.neighbours;
+        NeighbourResult result = neighbours > 0 ? group.results[from / CHUNK] : null;
+        for (int i = from; i < to; i++) {
+            Robot robot = group.robots.get(i);
+            double x = robot.x;
+            double y = robot.y;
+            double radius = robot.radius;
+            sensors.ids[i] = robot.id;
+            sensors.x[i] = x;
+            sensors.y[i] = y;
+            sensors.radius[i] = radius;
+            sensors.direction[i] = robot.direction;
+            sensors.speed[i] = robot.speed;
+
+            int contacts = 0;
+            int nearest = -1;
+            double nearestGap = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < obstacles; k++) {
+                double dx = obstacleX[k] - x;
+                double dy = obstacleY[k] - y;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (distance < radius + obstacleRadius[k] + range) {
+                    contacts++;
+                }
+                double gap = distance - radius - obstacleRadius[k];
+                if (gap < nearestGap) {
+                    nearestGap = gap;
+                    nearest = k;
+                }
+            }
+            sensors.contacts[i] = contacts;
+            sensors.nearestGap[i] = nearestGap;
+            sensors.nearestBearing[i] = nearest < 0 ? 0
+                    : Math.toDegrees(Math.atan2(obstacleY[nearest] - y, obstacleX[nearest] - x));
+
+            if (neighbours > 0) {
+                neighbourIndex.nearest(x, y, neighbours, robot, result);
+                sensors.neighbourCount[i] = result.size;
+                for (int j = 0; j < result.size; j++) {
+                    int e = result.entries[j];
+                    sensors.neighbourDx[i * neighbours + j] = neighbourIndex.getX(e) - x;
+                    sensors.neighbourDy[i * neighbours + j] = neighbourIndex.getY(e) - y;
+                    sensors.neighbourCos[i * neighbours + j] = neighbourIndex.getCos(e);
+                    sensors.neighbourSin[i * neighbours + j] = neighbourIndex.getSin(e);
+                }
+                result.clear();
+            }
+
+            commands.direction[i] = robot.direction;
+            commands.speed[i] = robot.speed;
+        }
+
+        group.controller.control(sensors, commands, from, to);
+
+        for (int i = from; i < to; i++) {
+            Robot robot = group.robots.get(i);
+            robot.direction = commands.direction[i];
+            robot.speed = commands.speed[i];
+        }
+    }
+
+    /**
+     * Appends an obstacle to the packed obstacle arrays.
+     */
+    private void addObstacle(AbstractObject obstacle) {
+        if (obstacles == obstacleX.length) {
+            obstacleX = Arrays.copyOf(obstacleX, obstacles * 2);
+            obstacleY = Arrays.copyOf(obstacleY, obstacles * 2);
+            obstacleRadius = Arrays.copyOf(obstacleRadius, obstacles * 2);
+        }
+        obstacleX[obstacles] = obstacle.x;
+        obstacleY[obstacles] = obstacle.y;
+        obstacleRadius[obstacles] = obstacle.radius;
+        obstacles++;
+    }
+
+    /**
+     * Forgets all groups, e.g. when the arena is cleared.
+     */
+    void clear() {
+        groups.clear();
+        retuned.clear();
+    }
+}
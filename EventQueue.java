@@ -0,0 +1,108 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Min-heap of predicted robot events, ordered by tick.
+ * <p>
+ * Each entry pairs the tick at which a robot may next interact with something
+ * with the robot's id. Entries are never updated in place: when a prediction
+ * changes, a new entry is pushed and the old one is recognised as stale when it
+ * is popped, because it no longer matches the robot's current prediction.
+ * Primitive arrays keep pushes and pops free of allocation.
+ * </p>
+ */
+public class EventQueue {
+    private long[] ticks = new long[64];
+    private int[] ids = new int[64];
+    private int size = 0;
+
+    /**
+     * Adds a prediction.
+     *
+     * @param tick The tick at which the robot has to be checked again.
+     * @param id   The id of the robot.
+     */
+    public void push(long tick, int id) {
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (ticks[parent] <= tick) {
+                break;
+            }
+            ticks[i] = ticks[parent];
+            ids[i] = ids[parent];
+            i = parent;
+        }
+        ticks[i] = tick;
+        ids[i] = id;
+    }
+
+    /**
+     * Returns the tick of the earliest prediction.
+     *
+     * @return The earliest tick, or {@link Long#MAX_VALUE} if the queue is empty.
+     */
+    public long peekTick() {
+        return size == 0 ? Long.MAX_VALUE : ticks[0];
+    }
+
+    /**
+     * Returns the robot id of the earliest prediction.
+     *
+     * @return The id, undefined if the queue is empty.
+     */
+    public int peekId() {
+        return ids[0];
+    }
+
+    /**
+     * Removes the earliest prediction.
+     */
+    public void pop() {
+        if (size == 0) {
+            return;
+        }
+        size--;
+        long tick = ticks[size];
+        int id = ids[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && ticks[child + 1] < ticks[child]) {
+                child++;
+            }
+            if (ticks[child] >= tick) {
+                break;
+            }
+            ticks[i] = ticks[child];
+            ids[i] = ids[child];
+            i = child;
+        }
+        ticks[i] = tick;
+        ids[i] = id;
+    }
+
+    /**
+     * Returns the number of entries, including stale ones.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
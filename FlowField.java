@@ -0,0 +1,223 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Direction to one goal from every cell of the arena, shared by all robots heading there.
+ * <p>
+ * The field is computed once with Dijkstra's algorithm from the goal cell over an
+ * 8-connected grid of traversal costs (see {@link FlowFieldCache}). Every cell then
+ * stores its path length to the goal and the direction of steepest descent,
+ * averaged over the neighbours that lie closer to the goal, so a robot steering
+ * along the field follows a smooth shortest path around obstacles. Looking up a
+ * direction costs O(1), however many robots use the field.
+ * </p>
+ * <p>
+ * A field never changes once computed, so it can be read from any thread.
+ * </p>
+ */
+public class FlowField {
+    private static final double DIAGONAL = Math.sqrt(2);
+    private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private final int goal;
+    private final int columns;
+    private final int rows;
+    private final double cell;
+    private final float[] distance;		// Path cost to the goal per cell
+    private final float[] directionX;	// Unit vector towards the goal per cell, 0 at the goal
+    private final float[] directionY;
+
+    /**
+     * Computes the field of a goal cell.
+     *
+     * @param costs   The cost of crossing each cell, at least 1.
+     * @param columns The number of columns of the grid.
+     * @param rows    The number of rows of the grid.
+     * @param cell    The cell size in pixels.
+     * @param goal    The index of the goal cell.
+     */
+    FlowField(float[] costs, int columns, int rows, double cell, int goal) {
+        this.goal = goal;
+        this.columns = columns;
+        this.rows = rows;
+        this.cell = cell;
+        int cells = columns * rows;
+        distance = new float[cells];
+        directionX = new float[cells];
+        directionY = new float[cells];
+        search(costs);
+        descend();
+    }
+
+    /**
+     * Fills {@code distance} with Dijkstra's algorithm, using a binary heap with decrease-key on primitive arrays.
+     */
+    private void search(float[] costs) {
+        int cells = columns * rows;
+        double[] best = new double[cells];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        int[] heap = new int[cells];		// Cells ordered by best distance
+        int[] position = new int[cells];	// Position of each cell in the heap, -1 if not queued, -2 once settled
+        Arrays.fill(position, -1);
+        int size = 0;
+        best[goal] = 0;
+        heap[size] = goal;
+        position[goal] = size++;
+        while (size > 0) {
+            int c = heap[0];
+            position[c] = -2;
+            size--;
+            if (size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(heap, position, best, size, 0);
+            }
+            int column = c % columns;
+            int row = c / columns;
+            for (int d = 0; d < 8; d++) {
+                int nc = column + DX[d];
+                int nr = row + DY[d];
+                if (nc < 0 || nc >= columns || nr < 0 || nr >= rows) {
+                    continue;
+                }
+                int n = nr * columns + nc;
+                if (position[n] == -2) {
+                    continue;
+                }
+                double step = (costs[c] + costs[n]) * 0.5 * (d < 4 ? 1 : DIAGONAL);
+                double candidate = best[c] + step;
+                if (candidate < best[n]) {
+                    best[n] = candidate;
+                    if (position[n] < 0) {
+                        heap[size] = n;
+                        position[n] = size++;
+                    }
+                    siftUp(heap, position, best, position[n]);
+                }
+            }
+        }
+        for (int c = 0; c < cells; c++) {
+            distance[c] = (float) best[c];
+        }
+    }
+
+    private static void siftUp(int[] heap, int[] position, double[] best, int i) {
+        int c = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!less(c, heap[parent], best)) {
+                break;
+            }
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = c;
+        position[c] = i;
+    }
+
+    private static void siftDown(int[] heap, int[] position, double[] best, int size, int i) {
+        int c = heap[i];
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && less(heap[child + 1], heap[child], best)) {
+                child++;
+            }
+            if (!less(heap[child], c, best)) {
+                break;
+            }
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = c;
+        position[c] = i;
+    }
+
+    /**
+     * Orders cells by distance, then by index, so equal inputs always give the same field.
+     */
+    private static boolean less(int a, int b, double[] best) {
+        return best[a] < best[b] || (best[a] == best[b] && a < b);
+    }
+
+    /**
+     * Points every cell down the distance slope, weighting each closer neighbour by how much closer it is.
+     */
+    private void descend() {
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int c = row * columns + column;
+                double x = 0, y = 0;
+                for (int d = 0; d < 8; d++) {
+                    int nc = column + DX[d];
+                    int nr = row + DY[d];
+                    if (nc < 0 || nc >= columns || nr < 0 || nr >= rows) {
+                        continue;
+                    }
+                    double length = d < 4 ? 1 : DIAGONAL;
+                    double slope = (distance[c] - distance[nr * columns + nc]) / length;
+                    if (slope > 0) {
+                        x += slope * DX[d] / length;
+                        y += slope * DY[d] / length;
+                    }
+                }
+                double norm = Math.sqrt(x * x + y * y);
+                if (norm > 0) {
+                    directionX[c] = (float) (x / norm);
+                    directionY[c] = (float) (y / norm);
+                }
+            }
+        }
+    }
+
+    private int cellAt(double x, double y) {
+        int column = Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cell)));
+        int row = Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cell)));
+        return row * columns + column;
+    }
+
+    /**
+     * Returns the x-component of the direction towards the goal at a point.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return The x-component of a unit vector, or 0 in the goal cell.
+     */
+    public double getDirectionX(double x, double y) {
+        return directionX[cellAt(x, y)];
+    }
+
+    /**
+     * Returns the y-component of the direction towards the goal at a point.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return The y-component of a unit vector, or 0 in the goal cell.
+     */
+    public double getDirectionY(double x, double y) {
+        return directionY[cellAt(x, y)];
+    }
+
+    /**
+     * Returns the cost of the shortest path from a point to the goal.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return The path cost in cells, higher through obstacles.
+     */
+    public double getDistance(double x, double y) {
+        return distance[cellAt(x, y)];
+    }
+
+    /**
+     * Returns the index of the goal cell.
+     *
+     * @return The cell the field leads to.
+     */
+    public int getGoal() {
+        return goal;
+    }
+}
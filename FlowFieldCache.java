@@ -0,0 +1,207 @@
+package Robot_Sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Flow fields of the goals robots navigate to, computed in the background and shared per goal.
+ * <p>
+ * Obstacles and black holes are rasterised into a grid of traversal costs: cells
+ * within {@code MARGIN} of their edge are expensive to cross rather than
+ * forbidden, so robots route around them but a robot pushed inside still finds its
+ * way out. Goals are snapped to the centre of their cell, so robots sent to nearby
+ * points share one {@link FlowField} and one {@link GoalController}, and the cost of
+ * navigation does not grow with the number of robots.
+ * </p>
+ * <p>
+ * Fields are computed on the common fork/join pool as soon as a goal is requested
+ * and cached until an obstacle or black hole is added, moved or removed. The next
+ * tick then rasterises the arena again and recomputes every cached field in the
+ * background at once. A controller waits for its field only if it is not finished
+ * when the robots need it, so the simulation never depends on thread timing. The
+ * cache is used from the thread running the ticks.
+ * </p>
+ * <p>
+ * Fields of goals robots are heading to are never dropped, however many there are.
+ * Of the others, the {@code MAX_FIELDS} used last are kept in case robots are sent
+ * there again; older ones are dropped together with their controller.
+ * </p>
+ */
+public class FlowFieldCache {
+    static final double CELL = 5;				// Cell size in pixels
+    private static final double MARGIN = 15;	// Clearance kept from obstacles, the radius of the largest default robot
+    private static final float NEAR_OBSTACLE = 50;	// Cost of crossing a cell within the margin, free cells cost 1
+    private static final int MAX_FIELDS = 64;	// Idle fields kept, least recently used ones are dropped first
+
+    private final int columns;
+    private final int rows;
+    private float[] costs;				// Replaced, never changed, so running computations keep their snapshot
+    private boolean dirty = true;		// Obstacles changed since the costs were rasterised
+    private final LinkedHashMap<Integer, CompletableFuture<FlowField>> fields =
+            new LinkedHashMap<>(16, 0.75f, true);	// In access order, least recently used first
+    private final Map<Integer, GoalController> controllers = new HashMap<>();
+    private Set<Integer> used = new HashSet<>();		// Goals whose controller steered robots in the last tick
+    private Set<Integer> using = new HashSet<>();		// Goals whose controller steered robots in this tick
+
+    /**
+     * Creates an empty cache for an arena of the given size.
+     *
+     * @param width  The width of the arena.
+     * @param height The height of the arena.
+     */
+    public FlowFieldCache(double width, double height) {
+        columns = (int) Math.ceil(width / CELL);
+        rows = (int) Math.ceil(height / CELL);
+    }
+
+    /**
+     * Marks every field as outdated after an obstacle or black hole was added, moved or removed.
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Starts a tick: rasterises the obstacles again if they changed and recomputes the cached fields in the background.
+     *
+     * @param objects The objects of the arena; only obstacles and black holes are used.
+     */
+    public void update(List<AbstractObject> objects) {
+        Set<Integer> last = used;
+        used = using;
+        using = last;
+        using.clear();
+        trim();
+        if (!dirty) {
+            return;
+        }
+        costs = rasterise(objects);
+        dirty = false;
+        List<Integer> goals = new ArrayList<>(fields.keySet()); // Oldest first, keeps the LRU order
+        fields.clear();
+        for (int goal : goals) {
+            fields.put(goal, compute(goal));
+        }
+    }
+
+    /**
+     * Builds the cost grid from the obstacles and black holes.
+     */
+    private float[] rasterise(List<AbstractObject> objects) {
+        float[] grid = new float[columns * rows];
+        Arrays.fill(grid, 1);
+        for (AbstractObject obj : objects) {
+            if (!(obj instanceof Obstacle) && !(obj instanceof BlackHole)) {
+                continue;
+            }
+            double reach = obj.radius + MARGIN;
+            int minColumn = Math.max(0, (int) Math.floor((obj.x - reach) / CELL));
+            int maxColumn = Math.min(columns - 1, (int) Math.floor((obj.x + reach) / CELL));
+            int minRow = Math.max(0, (int) Math.floor((obj.y - reach) / CELL));
+            int maxRow = Math.min(rows - 1, (int) Math.floor((obj.y + reach) / CELL));
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    double dx = obj.x - (column + 0.5) * CELL;
+                    double dy = obj.y - (row + 0.5) * CELL;
+                    if (dx * dx + dy * dy <= reach * reach) {
+                        grid[row * columns + column] = NEAR_OBSTACLE;
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Starts computing the field of a goal cell on the common pool.
+     */
+    private CompletableFuture<FlowField> compute(int goal) {
+        float[] snapshot = costs;
+        return CompletableFuture.supplyAsync(() -> new FlowField(snapshot, columns, rows, CELL, goal));
+    }
+
+    /**
+     * Returns the field of a goal cell, starting its computation if it is not cached.
+     * <p>
+     * While the obstacles changed and {@link #update} has not run yet, the goal is only
+     * remembered and computed by the next update.
+     * </p>
+     *
+     * @param goal The index of the goal cell.
+     * @return The field, possibly still being computed, or {@code null} until the next update.
+     */
+    CompletableFuture<FlowField> request(int goal) {
+        CompletableFuture<FlowField> field = fields.get(goal);
+        if (field == null) {
+            field = dirty ? null : compute(goal);
+            fields.put(goal, field);
+            trim();
+        }
+        return field;
+    }
+
+    /**
+     * Returns the field of a goal for a controller that steers robots in this tick, which keeps it cached.
+     *
+     * @param goal The index of the goal cell.
+     * @return The field, possibly still being computed.
+     */
+    CompletableFuture<FlowField> use(int goal) {
+        using.add(goal);
+        return request(goal);
+    }
+
+    /**
+     * Drops the least recently used fields, and their controllers, of goals no robot heads to beyond {@code MAX_FIELDS}.
+     */
+    private void trim() {
+        int excess = fields.size() - MAX_FIELDS;
+        for (Iterator<Integer> it = fields.keySet().iterator(); excess > 0 && it.hasNext(); ) {
+            int goal = it.next();
+            if (!used.contains(goal) && !using.contains(goal)) {
+                it.remove();
+                controllers.remove(goal);
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * Returns the controller that steers robots to a point, starting the computation of its field.
+     *
+     * @param x The x-coordinate of the goal.
+     * @param y The y-coordinate of the goal.
+     * @return The controller shared by every robot heading to the goal's cell.
+     */
+    public GoalController controller(double x, double y) {
+        int column = Math.max(0, Math.min(columns - 1, (int) Math.floor(x / CELL)));
+        int row = Math.max(0, Math.min(rows - 1, (int) Math.floor(y / CELL)));
+        int goal = row * columns + column;
+        GoalController controller = controllers.get(goal);
+        if (controller == null) {
+            controller = new GoalController(this, goal, (column + 0.5) * CELL, (row + 0.5) * CELL);
+            controllers.put(goal, controller);
+        }
+        use(goal); // Kept until the robots sent there have run with it
+        return controller;
+    }
+
+    /**
+     * Forgets every field and controller, e.g. when the arena is cleared.
+     */
+    public void clear() {
+        fields.clear();
+        controllers.clear();
+        used.clear();
+        using.clear();
+        dirty = true;
+    }
+}
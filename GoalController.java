@@ -0,0 +1,114 @@
+package Robot_Sim;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Steers robots along the flow field of one goal and stops them when they arrive.
+ * <p>
+ * One controller exists per goal cell, handed out by
+ * {@link FlowFieldCache#controller(double, double)}; use
+ * {@link Arena#navigateTo(Robot, double, double)} to send a robot somewhere. Every
+ * tick a robot takes the field's direction at its position, which leads around
+ * obstacles and black holes, and heads straight for the goal once it is in the goal
+ * cell. A robot whose centre is within its radius of the goal stops.
+ * </p>
+ * <p>
+ * The controller remembers the speed each robot had when it was sent, its cruise
+ * speed, and gives it back every tick the robot is outside the goal radius. A robot
+ * that stopped at one goal therefore drives off again at its old speed when it is
+ * sent somewhere else, or when it is pushed away from the goal.
+ * </p>
+ */
+public class GoalController implements RobotController {
+    private final FlowFieldCache cache;
+    private final int goal;				// Index of the goal cell
+    private final double goalX;
+    private final double goalY;
+    private FlowField field;			// Field of the current tick, set by prepare()
+    private final Map<Integer, Double> cruise = new HashMap<>();	// Cruise speed per robot id, only changed between ticks
+
+    GoalController(FlowFieldCache cache, int goal, double goalX, double goalY) {
+        this.cache = cache;
+        this.goal = goal;
+        this.goalX = goalX;
+        this.goalY = goalY;
+    }
+
+    /**
+     * Fetches the goal's field, waiting for the background computation if it has not finished.
+     */
+    @Override
+    public void prepare() {
+        field = cache.use(goal).join();
+    }
+
+    @Override
+    public void control(SensorBatch sensors, CommandBatch commands, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double x = sensors.x[i];
+            double y = sensors.y[i];
+            double dx = goalX - x;
+            double dy = goalY - y;
+            if (Math.sqrt(dx * dx + dy * dy) <= sensors.radius[i]) {
+                commands.speed[i] = 0; // Arrived
+                continue;
+            }
+            Double speed = cruise.get(sensors.ids[i]);
+            if (speed != null) {
+                commands.speed[i] = speed;
+            }
+            double fx = field.getDirectionX(x, y);
+            double fy = field.getDirectionY(x, y);
+            if (fx == 0 && fy == 0) {
+                fx = dx; // In the goal cell
+                fy = dy;
+            }
+            commands.direction[i] = (Math.toDegrees(Math.atan2(fy, fx)) + 360) % 360;
+        }
+    }
+
+    /**
+     * Remembers the speed a robot drives at while it is outside the goal radius.
+     */
+    void follow(Robot robot, double speed) {
+        cruise.put(robot.id, speed);
+    }
+
+    /**
+     * Forgets a robot that no longer uses this controller.
+     */
+    void release(Robot robot) {
+        cruise.remove(robot.id);
+    }
+
+    /**
+     * Returns the speed a robot drives at while it is outside the goal radius.
+     *
+     * @param robot The robot.
+     * @return The speed it had when it was sent to the goal, or its current speed if it was not sent with
+     *         {@link Arena#navigateTo}.
+     */
+    public double getCruiseSpeed(Robot robot) {
+        Double speed = cruise.get(robot.id);
+        return speed != null ? speed : robot.getSpeed();
+    }
+
+    /**
+     * Returns the x-coordinate of the goal.
+     *
+     * @return The centre of the goal cell.
+     */
+    public double getGoalX() {
+        return goalX;
+    }
+
+    /**
+     * Returns the y-coordinate of the goal.
+     *
+     * @return The centre of the goal cell.
+     */
+    public double getGoalY() {
+        return goalY;
+    }
+}
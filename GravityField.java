@@ -0,0 +1,170 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cached pull of all black holes, sampled on a regular grid.
+ * <p>
+ * Every cell stores the summed pull of the black holes at its center, so a robot
+ * looks up the force acting on it in O(1) no matter how many holes there are. The
+ * grid is rebuilt only when a hole is added, moved or removed; each hole then only
+ * touches the cells inside its influence radius.
+ * </p>
+ * <p>
+ * Each cell also stores a clearance: a lower bound on how far every point of the
+ * cell is from the edge of the nearest hole. A robot whose radius is below the
+ * clearance of its cell cannot be absorbed, so the exact absorption test is only
+ * run near holes.
+ * </p>
+ */
+public class GravityField {
+    private static final double CELL = 10;			// Cell size in pixels
+    private static final double MAX_CLEARANCE = 100;	// Clearance stored for cells far from every hole
+    private static final double HALF_DIAGONAL = CELL * Math.sqrt(2) / 2;
+
+    private final int columns;
+    private final int rows;
+    private final double[] forceX;
+    private final double[] forceY;
+    private final double[] clearance;
+    private double maxPull = 0;		// Largest pull in any cell
+    private boolean empty = true;	// No hole in the arena, nothing to sample
+
+    /**
+     * Creates a field covering an arena of the given size.
+     *
+     * @param width  The width of the arena.
+     * @param height The height of the arena.
+     */
+    public GravityField(double width, double height) {
+        columns = (int) Math.ceil(width / CELL);
+        rows = (int) Math.ceil(height / CELL);
+        forceX = new double[columns * rows];
+        forceY = new double[columns * rows];
+        clearance = new double[columns * rows];
+        Arrays.fill(clearance, MAX_CLEARANCE);
+    }
+
+    /**
+     * Recomputes the grid from the black holes among the objects.
+     *
+     * @param objects The objects of the arena.
+     */
+    public void rebuild(List<AbstractObject> objects) {
+        Arrays.fill(forceX, 0);
+        Arrays.fill(forceY, 0);
+        Arrays.fill(clearance, MAX_CLEARANCE);
+        empty = true;
+        for (AbstractObject obj : objects) {
+            if (obj instanceof BlackHole) {
+                stamp((BlackHole) obj);
+                empty = false;
+            }
+        }
+        maxPull = 0;
+        for (int c = 0; c < forceX.length; c++) {
+            maxPull = Math.max(maxPull, Math.sqrt(forceX[c] * forceX[c] + forceY[c] * forceY[c]));
+        }
+    }
+
+    /**
+     * Adds the pull and clearance of one hole to the cells it can affect.
+     */
+    private void stamp(BlackHole hole) {
+        double influence = hole.getPull() > 0 ? hole.getInfluenceRadius() : 0;
+        double reach = Math.max(influence, hole.radius + MAX_CLEARANCE) + HALF_DIAGONAL;
+        int minColumn = Math.max(0, (int) Math.floor((hole.x - reach) / CELL));
+        int maxColumn = Math.min(columns - 1, (int) Math.floor((hole.x + reach) / CELL));
+        int minRow = Math.max(0, (int) Math.floor((hole.y - reach) / CELL));
+        int maxRow = Math.min(rows - 1, (int) Math.floor((hole.y + reach) / CELL));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int c = row * columns + column;
+                double dx = hole.x - (column + 0.5) * CELL;
+                double dy = hole.y - (row + 0.5) * CELL;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                // Every point of the cell is at least distance - HALF_DIAGONAL from the center of the hole
+                clearance[c] = Math.min(clearance[c], distance - HALF_DIAGONAL - hole.radius - 1e-6);
+                if (distance < influence && distance > 0) {
+                    double strength = hole.getPull() * (1 - distance / influence);
+                    forceX[c] += dx / distance * strength;
+                    forceY[c] += dy / distance * strength;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cell containing a point.
+     *
+     * @return The cell index, or -1 if the point is outside the grid.
+     */
+    private int cell(double x, double y) {
+        if (!(x >= 0 && y >= 0)) {
+            return -1;
+        }
+        int column = (int) (x / CELL);
+        int row = (int) (y / CELL);
+        return column < columns && row < rows ? row * columns + column : -1;
+    }
+
+    /**
+     * Returns the horizontal pull at a point.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The pull along x in pixels per tick.
+     */
+    public double getForceX(double x, double y) {
+        int c = cell(x, y);
+        return c < 0 ? 0 : forceX[c];
+    }
+
+    /**
+     * Returns the vertical pull at a point.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The pull along y in pixels per tick.
+     */
+    public double getForceY(double x, double y) {
+        int c = cell(x, y);
+        return c < 0 ? 0 : forceY[c];
+    }
+
+    /**
+     * Checks whether a robot is close enough to a hole to possibly be absorbed.
+     * <p>
+     * {@code false} is certain; {@code true} means the exact test has to decide.
+     * </p>
+     *
+     * @param robot The robot.
+     * @return {@code false} if no hole can absorb the robot where it is.
+     */
+    public boolean mayAbsorb(Robot robot) {
+        if (empty) {
+            return false;
+        }
+        int c = cell(robot.x, robot.y);
+        return c < 0 || !(robot.radius < clearance[c]);
+    }
+
+    /**
+     * Returns the largest pull anywhere in the arena, which bounds how far a hole moves a robot per tick.
+     *
+     * @return The largest pull in pixels per tick.
+     */
+    public double getMaxPull() {
+        return maxPull;
+    }
+
+    /**
+     * Returns whether there are no holes.
+     *
+     * @return {@code true} if no hole was found at the last rebuild.
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+}
@@ -0,0 +1,213 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Grid of circles with one level per size class, for overlap queries over objects of very different radii.
+ * <p>
+ * Level {@code L} has cells of {@code minCell * 2^L} pixels. A circle is stored once,
+ * in the cell of its center on the lowest level whose cells are at least as wide
+ * as the circle, so big circles do not fill many small cells and small circles do
+ * not crowd into big ones. A query visits the cells near the query circle on every
+ * level that holds something; on each level that is a handful of cells, so the
+ * cost depends on the number of size classes in use and not on how the radii are
+ * distributed.
+ * </p>
+ * <p>
+ * Entries are plain integer handles with a position and radius given when they
+ * are added, kept in flat arrays that are reused after {@link #clear()}, so filling
+ * the grid every tick allocates nothing once it has grown.
+ * </p>
+ */
+public class HierarchicalGrid {
+    private static final int MAX_LEVELS = 10;	// Circles wider than the top level's cells are stored there anyway
+
+    private final double width;
+    private final double height;
+    private final double minCell;
+    private final Level[] levels = new Level[MAX_LEVELS];
+    private int[] handles = new int[64];
+    private double[] x = new double[64];
+    private double[] y = new double[64];
+    private double[] radius = new double[64];
+    private int[] next = new int[64];	// Next entry in the same cell, -1 at the end
+    private int size = 0;
+    private int tested = 0;			// Entries tested by the last query
+
+    /**
+     * The cells of one size class.
+     */
+    private static class Level {
+        final double cell;
+        final int columns;
+        final int rows;
+        final int[] head;		// First entry per cell, -1 if empty
+        int count = 0;
+        double maxRadius = 0;	// Largest circle on this level, bounds how far a stored circle reaches
+
+        Level(double cell, double width, double height) {
+            this.cell = cell;
+            this.columns = Math.max(1, (int) Math.ceil(width / cell));
+            this.rows = Math.max(1, (int) Math.ceil(height / cell));
+            this.head = new int[columns * rows];
+            Arrays.fill(head, -1);
+        }
+
+        int column(double x) {
+            return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cell)));
+        }
+
+        int row(double y) {
+            return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cell)));
+        }
+    }
+
+    /**
+     * Creates an empty grid.
+     * <p>
+     * Circles outside the covered area are kept in the border cells.
+     * </p>
+     *
+     * @param width   The width of the covered area.
+     * @param height  The height of the covered area.
+     * @param minCell The cell size of the lowest level, about the diameter of the smallest circles.
+     */
+    public HierarchicalGrid(double width, double height, double minCell) {
+        this.width = width;
+        this.height = height;
+        this.minCell = minCell;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        for (Level level : levels) {
+            if (level != null && level.count > 0) {
+                Arrays.fill(level.head, -1);
+                level.count = 0;
+                level.maxRadius = 0;
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Adds a circle.
+     *
+     * @param handle The value reported by queries for this circle.
+     * @param x      The x-coordinate of the center.
+     * @param y      The y-coordinate of the center.
+     * @param r      The radius.
+     */
+    public void add(int handle, double x, double y, double r) {
+        if (size == handles.length) {
+            grow();
+        }
+        int l = 0;
+        while (l < MAX_LEVELS - 1 && 2 * r > minCell * (1 << l)) {
+            l++;
+        }
+        Level level = levels[l];
+        if (level == null) {
+            level = new Level(minCell * (1 << l), width, height);
+            levels[l] = level;
+        }
+        int c = level.row(y) * level.columns + level.column(x);
+        handles[size] = handle;
+        this.x[size] = x;
+        this.y[size] = y;
+        radius[size] = r;
+        next[size] = level.head[c];
+        level.head[c] = size;
+        level.count++;
+        level.maxRadius = Math.max(level.maxRadius, r);
+        size++;
+    }
+
+    /**
+     * Finds the circles that overlap a query circle.
+     * <p>
+     * Two circles overlap when the distance of their centers is below the sum of
+     * their radii, computed as {@code Math.sqrt(dx * dx + dy * dy) < r + radius},
+     * the same test as {@link MotionKernel#overlaps}.
+     * </p>
+     *
+     * @param px  The x-coordinate of the query center.
+     * @param py  The y-coordinate of the query center.
+     * @param r   The query radius.
+     * @param out Receives the handles of the overlapping circles in no particular order;
+     *            must hold as many handles as the grid holds circles.
+     * @return The number of handles written.
+     */
+    public int query(double px, double py, double r, int[] out) {
+        return query(px, py, r, out, null);
+    }
+
+    /**
+     * Finds the circles that overlap a query circle, leaving out some handles.
+     *
+     * @param px   The x-coordinate of the query center.
+     * @param py   The y-coordinate of the query center.
+     * @param r    The query radius.
+     * @param out  Receives the handles of the overlapping circles in no particular order.
+     * @param skip Handles that are neither tested nor reported where {@code skip[handle]} is set,
+     *             or {@code null} to test all.
+     * @return The number of handles written.
+     */
+    public int query(double px, double py, double r, int[] out, boolean[] skip) {
+        int found = 0;
+        tested = 0;
+        for (Level level : levels) {
+            if (level == null || level.count == 0) {
+                continue;
+            }
+            double reach = r + level.maxRadius;
+            int maxColumn = level.column(px + reach);
+            int maxRow = level.row(py + reach);
+            for (int row = level.row(py - reach); row <= maxRow; row++) {
+                for (int column = level.column(px - reach); column <= maxColumn; column++) {
+                    for (int e = level.head[row * level.columns + column]; e >= 0; e = next[e]) {
+                        if (skip != null && skip[handles[e]]) {
+                            continue;
+                        }
+                        double dx = px - x[e];
+                        double dy = py - y[e];
+                        if (Math.sqrt(dx * dx + dy * dy) < r + radius[e]) {
+                            out[found++] = handles[e];
+                        }
+                        tested++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns how many circles the last query tested exactly.
+     *
+     * @return The number of candidate circles of the last query.
+     */
+    public int getTested() {
+        return tested;
+    }
+
+    /**
+     * Returns the number of circles in the grid.
+     *
+     * @return The number of circles added since the last clear.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        int capacity = handles.length * 2;
+        handles = Arrays.copyOf(handles, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+}
@@ -0,0 +1,129 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Records a distribution of durations with constant memory and constant-time updates.
+ * <p>
+ * Works like HdrHistogram: values below 128 get their own bucket, larger values are
+ * grouped into buckets of 64 per power of two, so every recorded value is kept with
+ * a relative error below 1%. Values of 2^45 ns (roughly 9.8 hours) and more are
+ * clamped into the last bucket.
+ * </p>
+ * <p>
+ * Recording is not synchronised. Readers on other threads may see slightly stale
+ * counts, which is acceptable for monitoring.
+ * </p>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 64;		// Buckets per power of two
+    private static final int LINEAR_LIMIT = 128;	// Values below this are stored exactly
+    private static final int MAX_SHIFT = 38;
+
+    private final long[] counts = new long[LINEAR_LIMIT + MAX_SHIFT * SUB_BUCKETS];
+    private long totalCount = 0;
+    private long totalSum = 0;
+    private long max = 0;
+
+    /**
+     * Adds one value to the histogram.
+     *
+     * @param value The value, e.g. a duration in nanoseconds. Negative values count as 0.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        totalSum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Returns the value below which the given percentage of recorded values fall.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The approximate value at the percentile, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = totalCount;
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(valueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return The number of values.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return The mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) totalSum / totalCount;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return The maximum value.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalSum = 0;
+        max = 0;
+    }
+
+    /**
+     * Maps a value to its bucket.
+     */
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;	// value >>> shift is in [64, 128)
+        if (shift > MAX_SHIFT) {
+            return LINEAR_LIMIT + MAX_SHIFT * SUB_BUCKETS - 1;
+        }
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the middle of the range of values that map to a bucket.
+     */
+    private static long valueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long low = (long) (SUB_BUCKETS + (index - LINEAR_LIMIT) % SUB_BUCKETS) << shift;
+        return low + ((1L << shift) >> 1);
+    }
+}
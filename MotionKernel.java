@@ -0,0 +1,95 @@
+package Robot_Sim;
+
+/**
+ * Data-parallel math of a tick over packed coordinate arrays.
+ * <p>
+ * The arena packs positions, radii and headings into parallel arrays and hands them
+ * to a kernel instead of calling {@link Robot#update()} and
+ * {@link Robot#checkCollision} object by object. Every kernel must give exactly the
+ * results of that scalar code, bit for bit, so recordings and checksums do not
+ * depend on the kernel in use.
+ * </p>
+ * <p>
+ * {@link #preferred()} picks {@code VectorMotionKernel} from the optional
+ * {@code vector} source root when it is on the class path and the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and falls back to
+ * {@link ScalarMotionKernel} otherwise. {@code -Drobotsim.simd=false} forces the
+ * scalar kernel. {@code -Drobotsim.offheap=true} picks {@code OffHeapMotionKernel} from the optional
+ * {@code offheap} source root, which needs {@code --enable-preview}, when it is on the
+ * class path.
+ * </p>
+ */
+public interface MotionKernel {
+
+    /**
+     * Moves robots one step and bounces them off the walls, like {@link Robot#update()}.
+     * <p>
+     * {@code x}, {@code y} and {@code direction} are updated in place. The heading
+     * arrays hold {@code Math.cos} and {@code Math.sin} of each robot's direction in
+     * radians.
+     * </p>
+     *
+     * @param x         The x-coordinates.
+     * @param y         The y-coordinates.
+     * @param radius    The radii.
+     * @param speed     The speeds.
+     * @param cos       The cosine of each direction.
+     * @param sin       The sine of each direction.
+     * @param direction The directions in degrees.
+     * @param n         The number of robots.
+     * @param width     The width of the arena.
+     * @param height    The height of the arena.
+     */
+    void integrate(double[] x, double[] y, double[] radius, double[] speed, double[] cos, double[] sin,
+                   double[] direction, int n, double width, double height);
+
+    /**
+     * Finds the packed circles that overlap one circle, like {@link Robot#checkCollision}.
+     *
+     * @param px     The x-coordinate of the circle.
+     * @param py     The y-coordinate of the circle.
+     * @param pr     The radius of the circle.
+     * @param x      The x-coordinates of the packed circles.
+     * @param y      The y-coordinates of the packed circles.
+     * @param radius The radii of the packed circles.
+     * @param n      The number of packed circles.
+     * @param hits   Receives the indices of the overlapping circles in ascending order; needs room for {@code n}.
+     * @return The number of overlapping circles.
+     */
+    int overlaps(double px, double py, double pr, double[] x, double[] y, double[] radius, int n, int[] hits);
+
+    /**
+     * Returns a short description for the performance overlay.
+     *
+     * @return The name of the kernel.
+     */
+    String getName();
+
+    /**
+     * Returns the fastest kernel this JVM supports.
+     *
+     * @return The off-heap kernel if requested and available, else the vector kernel if it
+     *         was compiled and {@code jdk.incubator.vector} is available, the scalar kernel otherwise.
+     */
+    static MotionKernel preferred() {
+        if (Boolean.getBoolean("robotsim.offheap")) {
+            try {
+                // Loaded by name, it is only compiled with the preview API enabled
+                return (MotionKernel) Class.forName("Robot_Sim.OffHeapMotionKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Off-heap kernel unavailable: " + e);
+            }
+        }
+        if (!Boolean.parseBoolean(System.getProperty("robotsim.simd", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new ScalarMotionKernel();
+        }
+        try {
+            // Loaded by name, it is only compiled with the incubator module added
+            return (MotionKernel) Class.forName("Robot_Sim.VectorMotionKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Vector kernel unavailable, using scalar math: " + e);
+            return new ScalarMotionKernel();
+        }
+    }
+}
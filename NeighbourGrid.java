@@ -0,0 +1,300 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snapshot of the robots' positions and headings in a uniform grid, for nearest-neighbour and radius queries.
+ * <p>
+ * A rebuild sorts the robots by cell with a counting sort into flat arrays, so the
+ * robots of a cell are contiguous and a rebuild costs O(n) without allocating once
+ * the arrays have grown. The cell size follows the number of robots, about one
+ * per cell on average; flocking robots crowd together, so small cells keep the
+ * number of robots a query tests low where it matters.
+ * </p>
+ * <p>
+ * Queries only read the snapshot, so many threads can query at once; a rebuild
+ * must not run concurrently with them. The arena rebuilds the snapshot lazily,
+ * on the first query after robots moved, were added or were removed.
+ * </p>
+ */
+public class NeighbourGrid {
+    private static final double MIN_CELL = 4;		// Smallest cell, for very dense crowds
+    private static final double MAX_CELL = 100;	// Largest cell, for a handful of robots
+
+    private final double width;
+    private final double height;
+    private double cell = MAX_CELL;
+    private int columns = 1;
+    private int rows = 1;
+    private int[] cellStart = new int[2];		// Entries of cell c are cellStart[c]..cellStart[c + 1]
+    private Robot[] robots = new Robot[16];
+    private double[] x = new double[16];
+    private double[] y = new double[16];
+    private double[] cos = new double[16];		// Heading of each robot as a unit vector
+    private double[] sin = new double[16];
+    private int[] cellOf = new int[16];		// Cell of each robot in list order, while rebuilding
+    private Robot[] unsorted = new Robot[16];
+    private int size = 0;
+    private double maxRadius = 0;			// Largest radius of the indexed robots
+    private boolean valid = false;
+
+    /**
+     * Creates an empty grid covering an arena of the given size.
+     *
+     * @param width  The width of the arena.
+     * @param height The height of the arena.
+     */
+    public NeighbourGrid(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Marks the snapshot as outdated after robots moved, turned, were added or were removed.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Rebuilds the snapshot if it is outdated.
+     *
+     * @param objects The objects of the arena; only robots are indexed, {@code null} tombstones are skipped.
+     */
+    public void ensure(List<AbstractObject> objects) {
+        if (!valid) {
+            rebuild(objects);
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot from the robots among the objects.
+     *
+     * @param objects The objects of the arena; only robots are indexed, {@code null} tombstones are skipped.
+     */
+    public void rebuild(List<AbstractObject> objects) {
+        size = 0;
+        maxRadius = 0;
+        for (AbstractObject obj : objects) {
+            if (obj instanceof Robot) {
+                if (size == unsorted.length) {
+                    grow(size * 2);
+                }
+                unsorted[size++] = (Robot) obj;
+                maxRadius = Math.max(maxRadius, obj.radius);
+            }
+        }
+        cell = Math.max(MIN_CELL, Math.min(MAX_CELL, Math.sqrt(width * height / Math.max(1, size))));
+        columns = Math.max(1, (int) Math.ceil(width / cell));
+        rows = Math.max(1, (int) Math.ceil(height / cell));
+        if (cellStart.length < columns * rows + 1) {
+            cellStart = new int[columns * rows + 1];
+        }
+        Arrays.fill(cellStart, 0, columns * rows + 1, 0);
+        for (int i = 0; i < size; i++) {
+            Robot robot = unsorted[i];
+            int c = row(robot.y) * columns + column(robot.x);
+            cellOf[i] = c;
+            cellStart[c + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        for (int i = 0; i < size; i++) {
+            Robot robot = unsorted[i];
+            int e = cellStart[cellOf[i]]++; // Temporarily used as the write cursor of the cell
+            robots[e] = robot;
+            x[e] = robot.x;
+            y[e] = robot.y;
+            if (Double.doubleToRawLongBits(robot.direction) != Double.doubleToRawLongBits(robot.headingDirection)) {
+                robot.headingDirection = robot.direction; // Same cache as the motion kernel uses
+                robot.headingCos = Math.cos(Math.toRadians(robot.direction));
+                robot.headingSin = Math.sin(Math.toRadians(robot.direction));
+            }
+            cos[e] = robot.headingCos;
+            sin[e] = robot.headingSin;
+            unsorted[i] = null;
+        }
+        // The cursors ended at the start of the next cell, shift them back
+        for (int c = columns * rows; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+        valid = true;
+    }
+
+    /**
+     * Returns the largest radius of the robots in the snapshot, to widen radius queries for overlap tests.
+     */
+    double getMaxRadius() {
+        return maxRadius;
+    }
+
+    private int column(double px) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(px / cell)));
+    }
+
+    private int row(double py) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(py / cell)));
+    }
+
+    /**
+     * Finds the robots nearest to a point, nearest first.
+     * <p>
+     * The search walks rings of cells outwards from the point's cell and stops once
+     * no cell further out can hold a robot closer than the k-th found. Robots at
+     * the same distance are reported in the order of the snapshot, so results are reproducible.
+     * </p>
+     *
+     * @param px      The x-coordinate of the point.
+     * @param py      The y-coordinate of the point.
+     * @param k       The number of robots to find.
+     * @param exclude A robot to leave out, usually the one asking, or {@code null}.
+     * @param result  Receives up to {@code k} robots.
+     */
+    public void nearest(double px, double py, int k, Robot exclude, NeighbourResult result) {
+        result.clear();
+        if (k <= 0) {
+            return;
+        }
+        result.ensureCapacity(k);
+        int found = 0;
+        double[] best = result.distance;	// Squared distances until the end
+        int[] entries = result.entries;
+        int cx = column(px);
+        int cy = row(py);
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (found == k && ring > 0) {
+                // Distance from the point to the nearest cell on this ring, sides outside the grid hold nothing
+                double reach = Double.POSITIVE_INFINITY;
+                if (cx - ring >= 0) {
+                    reach = Math.min(reach, px - (cx - ring + 1) * cell);
+                }
+                if (cx + ring < columns) {
+                    reach = Math.min(reach, (cx + ring) * cell - px);
+                }
+                if (cy - ring >= 0) {
+                    reach = Math.min(reach, py - (cy - ring + 1) * cell);
+                }
+                if (cy + ring < rows) {
+                    reach = Math.min(reach, (cy + ring) * cell - py);
+                }
+                if (reach > 0 && reach * reach > best[k - 1]) {
+                    break;
+                }
+            }
+            for (int row = cy - ring; row <= cy + ring; row++) {
+                if (row < 0 || row >= rows) {
+                    continue;
+                }
+                boolean edge = row == cy - ring || row == cy + ring;
+                for (int column = cx - ring; column <= cx + ring; column += edge ? 1 : 2 * ring) {
+                    if (column >= 0 && column < columns) {
+                        int c = row * columns + column;
+                        for (int e = cellStart[c]; e < cellStart[c + 1]; e++) {
+                            if (robots[e] == exclude) {
+                                continue;
+                            }
+                            double dx = x[e] - px;
+                            double dy = y[e] - py;
+                            double d2 = dx * dx + dy * dy;
+                            if (found < k || d2 < best[k - 1] || (d2 == best[k - 1] && e < entries[k - 1])) {
+                                int i = found < k ? found++ : k - 1;
+                                while (i > 0 && (best[i - 1] > d2 || (best[i - 1] == d2 && entries[i - 1] > e))) {
+                                    best[i] = best[i - 1];
+                                    entries[i] = entries[i - 1];
+                                    i--;
+                                }
+                                best[i] = d2;
+                                entries[i] = e;
+                            }
+                        }
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < found; i++) {
+            result.robots[i] = robots[entries[i]];
+            best[i] = Math.sqrt(best[i]);
+        }
+        result.size = found;
+    }
+
+    /**
+     * Finds the robots whose centers lie within a distance of a point, in the order of the snapshot.
+     *
+     * @param px      The x-coordinate of the point.
+     * @param py      The y-coordinate of the point.
+     * @param radius  The largest distance.
+     * @param exclude A robot to leave out, usually the one asking, or {@code null}.
+     * @param result  Receives the robots found; grows as needed.
+     */
+    public void within(double px, double py, double radius, Robot exclude, NeighbourResult result) {
+        result.clear();
+        int found = 0;
+        double r2 = radius * radius;
+        int maxColumn = column(px + radius);
+        int maxRow = row(py + radius);
+        for (int row = row(py - radius); row <= maxRow; row++) {
+            for (int column = column(px - radius); column <= maxColumn; column++) {
+                int c = row * columns + column;
+                for (int e = cellStart[c]; e < cellStart[c + 1]; e++) {
+                    double dx = x[e] - px;
+                    double dy = y[e] - py;
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 <= r2 && robots[e] != exclude) {
+                        result.ensureCapacity(found + 1);
+                        result.entries[found] = e;
+                        result.robots[found] = robots[e];
+                        result.distance[found] = Math.sqrt(d2);
+                        found++;
+                    }
+                }
+            }
+        }
+        result.size = found;
+    }
+
+    /**
+     * Returns the x-coordinate of an entry when the snapshot was taken.
+     */
+    double getX(int entry) {
+        return x[entry];
+    }
+
+    /**
+     * Returns the y-coordinate of an entry when the snapshot was taken.
+     */
+    double getY(int entry) {
+        return y[entry];
+    }
+
+    /**
+     * Returns the cosine of an entry's heading when the snapshot was taken.
+     */
+    double getCos(int entry) {
+        return cos[entry];
+    }
+
+    /**
+     * Returns the sine of an entry's heading when the snapshot was taken.
+     */
+    double getSin(int entry) {
+        return sin[entry];
+    }
+
+    private void grow(int capacity) {
+        robots = Arrays.copyOf(robots, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        cos = Arrays.copyOf(cos, capacity);
+        sin = Arrays.copyOf(sin, capacity);
+        cellOf = Arrays.copyOf(cellOf, capacity);
+        unsorted = Arrays.copyOf(unsorted, capacity);
+    }
+}
@@ -0,0 +1,53 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Reusable result buffer of a neighbour query, see {@link Arena#nearestRobots} and {@link Arena#robotsWithin}.
+ * <p>
+ * A query overwrites the buffer and grows its arrays when needed, so a caller
+ * that keeps one buffer per thread runs its queries without allocating. The
+ * arrays may be longer than {@link #size}; only the first {@code size} elements
+ * are valid.
+ * </p>
+ */
+public class NeighbourResult {
+    /** The number of robots found. */
+    public int size;
+    /** The robots found. */
+    public Robot[] robots;
+    /** The distance between the query point and each robot's center. */
+    public double[] distance;
+    int[] entries;		// Index entries of the robots, for callers inside the package
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param capacity The number of robots it holds before it has to grow.
+     */
+    public NeighbourResult(int capacity) {
+        robots = new Robot[Math.max(1, capacity)];
+        distance = new double[robots.length];
+        entries = new int[robots.length];
+    }
+
+    /**
+     * Makes room for at least {@code n} robots, keeping the first {@link #size}.
+     */
+    void ensureCapacity(int n) {
+        if (robots.length < n) {
+            int capacity = Math.max(n, robots.length * 2);
+            robots = Arrays.copyOf(robots, capacity);
+            distance = Arrays.copyOf(distance, capacity);
+            entries = Arrays.copyOf(entries, capacity);
+        }
+    }
+
+    /**
+     * Drops the references to the robots found by the last query.
+     */
+    public void clear() {
+        Arrays.fill(robots, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,134 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Maps object ids to objects without boxing.
+ * <p>
+ * Open addressing with linear probing over parallel {@code int}/object arrays. Id 0
+ * marks an empty slot, which is why ids handed out by {@link Arena} start at 1.
+ * Removal shifts following entries back instead of leaving tombstones, so lookups
+ * stay short no matter how many objects come and go.
+ * </p>
+ */
+public class ObjectIndex {
+    private int[] keys;
+    private AbstractObject[] values;
+    private int size = 0;
+
+    /**
+     * Creates an empty index.
+     */
+    public ObjectIndex() {
+        keys = new int[16];
+        values = new AbstractObject[16];
+    }
+
+    /**
+     * Returns the object with the given id.
+     *
+     * @param id The id to look up.
+     * @return The object, or {@code null} if no object has this id.
+     */
+    public AbstractObject get(int id) {
+        int mask = keys.length - 1;
+        for (int slot = hash(id) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds or replaces the object stored under its id.
+     *
+     * @param id  The id of the object, greater than zero.
+     * @param obj The object.
+     */
+    public void put(int id, AbstractObject obj) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == id) {
+                values[slot] = obj;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        values[slot] = obj;
+        size++;
+    }
+
+    /**
+     * Removes the object stored under an id.
+     *
+     * @param id The id to remove.
+     */
+    public void remove(int id) {
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != id) {
+            if (keys[slot] == 0) {
+                return; // Not present
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Shift back entries that would no longer be reachable across the gap
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+        size--;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of indexed objects.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        AbstractObject[] oldValues = values;
+        keys = new int[capacity];
+        values = new AbstractObject[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Spreads sequential ids over the table.
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
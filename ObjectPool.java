@@ -0,0 +1,84 @@
+package Robot_Sim;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps removed objects for reuse so spawning does not allocate.
+ * <p>
+ * Each concrete type has its own free list. {@link Arena} returns objects here
+ * when they are absorbed, deleted or cleared, and its {@code createRandom*}
+ * factories take them back out and reset their state. Once the pool is warm,
+ * spawn/despawn churn creates no garbage.
+ * </p>
+ */
+public class ObjectPool {
+    private final Map<Class<?>, ArrayDeque<AbstractObject>> freeLists = new HashMap<>();
+    private final int maxPerType;	// Upper bound of each free list, so the pool cannot grow forever
+    private long reused = 0;		// Number of objects handed out again
+
+    /**
+     * Creates a pool that keeps at most {@code maxPerType} free objects of each type.
+     *
+     * @param maxPerType The maximum number of free objects kept per type.
+     */
+    public ObjectPool(int maxPerType) {
+        this.maxPerType = maxPerType;
+    }
+
+    /**
+     * Takes a free object of the given type.
+     * <p>
+     * The caller must reset the object's state before using it.
+     * </p>
+     *
+     * @param type The concrete class of the object.
+     * @param <T>  The type of the object.
+     * @return A recycled object, or {@code null} if none is free.
+     */
+    public <T extends AbstractObject> T acquire(Class<T> type) {
+        ArrayDeque<AbstractObject> free = freeLists.get(type);
+        if (free == null || free.isEmpty()) {
+            return null;
+        }
+        reused++;
+        return type.cast(free.pop());
+    }
+
+    /**
+     * Returns an object to its free list.
+     *
+     * @param obj An object that is no longer referenced by the arena.
+     */
+    public void release(AbstractObject obj) {
+        ArrayDeque<AbstractObject> free = freeLists.get(obj.getClass());
+        if (free == null) {
+            free = new ArrayDeque<>();
+            freeLists.put(obj.getClass(), free);
+        }
+        if (free.size() < maxPerType) {
+            free.push(obj);
+        }
+    }
+
+    /**
+     * Returns the number of free objects of a type.
+     *
+     * @param type The concrete class of the objects.
+     * @return The number of objects ready to be reused.
+     */
+    public int getFreeCount(Class<?> type) {
+        ArrayDeque<AbstractObject> free = freeLists.get(type);
+        return free == null ? 0 : free.size();
+    }
+
+    /**
+     * Returns how many objects have been reused instead of allocated.
+     *
+     * @return The number of recycled objects handed out.
+     */
+    public long getReusedCount() {
+        return reused;
+    }
+}
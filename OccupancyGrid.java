@@ -0,0 +1,165 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Free space of the arena around its static objects, on a regular grid.
+ * <p>
+ * Every cell stores its clearance: a lower bound on the distance from any point of
+ * the cell to the edge of the nearest obstacle, black hole or teleport pad, and to
+ * the walls. A robot whose radius does not exceed the clearance of a cell can be
+ * placed anywhere in that cell without overlapping a static object. Clearances
+ * above {@code MAX_CLEARANCE} are not tracked, which keeps a rebuild proportional
+ * to the number of objects.
+ * </p>
+ */
+public class OccupancyGrid {
+    static final double CELL = 5;				// Cell size in pixels
+    static final double MAX_CLEARANCE = 40;		// Clearance stored for cells far from everything
+    private static final double HALF_DIAGONAL = CELL * Math.sqrt(2) / 2;
+
+    private final int columns;
+    private final int rows;
+    private final double[] clearance;
+
+    /**
+     * Creates a grid covering an arena of the given size.
+     *
+     * @param width  The width of the arena.
+     * @param height The height of the arena.
+     */
+    public OccupancyGrid(double width, double height) {
+        columns = (int) (width / CELL);
+        rows = (int) (height / CELL);
+        clearance = new double[columns * rows];
+        clearToWalls();
+    }
+
+    /**
+     * Recomputes the clearances from the static objects among the objects.
+     *
+     * @param objects The objects of the arena; robots and {@code null} tombstones are ignored.
+     */
+    public void rebuild(List<AbstractObject> objects) {
+        clearToWalls();
+        for (AbstractObject obj : objects) {
+            if (obj != null && !(obj instanceof Robot)) {
+                stamp(obj);
+            }
+        }
+    }
+
+    /**
+     * Sets every cell to its distance from the walls.
+     */
+    private void clearToWalls() {
+        double width = columns * CELL;
+        double height = rows * CELL;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                double x = (column + 0.5) * CELL;
+                double y = (row + 0.5) * CELL;
+                double wall = Math.min(Math.min(x, width - x), Math.min(y, height - y)) - HALF_DIAGONAL;
+                clearance[row * columns + column] = Math.min(MAX_CLEARANCE, wall);
+            }
+        }
+    }
+
+    /**
+     * Lowers the clearance of the cells near one static object.
+     */
+    private void stamp(AbstractObject obj) {
+        double reach = obj.radius + MAX_CLEARANCE + HALF_DIAGONAL;
+        int minColumn = Math.max(0, (int) Math.floor((obj.x - reach) / CELL));
+        int maxColumn = Math.min(columns - 1, (int) Math.floor((obj.x + reach) / CELL));
+        int minRow = Math.max(0, (int) Math.floor((obj.y - reach) / CELL));
+        int maxRow = Math.min(rows - 1, (int) Math.floor((obj.y + reach) / CELL));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int c = row * columns + column;
+                double dx = obj.x - (column + 0.5) * CELL;
+                double dy = obj.y - (row + 0.5) * CELL;
+                double gap = Math.sqrt(dx * dx + dy * dy) - obj.radius - HALF_DIAGONAL - 1e-6; // Slack for rounding
+                if (gap < clearance[c]) {
+                    clearance[c] = gap;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cells in which a circle of the given radius fits anywhere.
+     *
+     * @param radius The radius of the circle.
+     * @return The cell indices in ascending order.
+     */
+    public int[] freeCells(double radius) {
+        return freeCells(radius, 0, 0, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the cells in which a circle fits anywhere and whose center lies within a given distance of a point.
+     *
+     * @param radius   The radius of the circle.
+     * @param x        The x-coordinate of the point.
+     * @param y        The y-coordinate of the point.
+     * @param distance The largest distance between the point and a cell center.
+     * @return The cell indices in ascending order.
+     */
+    public int[] freeCells(double radius, double x, double y, double distance) {
+        int minColumn = 0, maxColumn = columns - 1, minRow = 0, maxRow = rows - 1;
+        if (distance != Double.POSITIVE_INFINITY) {
+            minColumn = Math.max(minColumn, (int) Math.floor((x - distance) / CELL));
+            maxColumn = Math.min(maxColumn, (int) Math.floor((x + distance) / CELL));
+            minRow = Math.max(minRow, (int) Math.floor((y - distance) / CELL));
+            maxRow = Math.min(maxRow, (int) Math.floor((y + distance) / CELL));
+        }
+        int[] cells = new int[Math.max(0, (maxColumn - minColumn + 1) * (maxRow - minRow + 1))];
+        int n = 0;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int c = row * columns + column;
+                if (clearance[c] < radius) {
+                    continue;
+                }
+                double dx = (column + 0.5) * CELL - x;
+                double dy = (row + 0.5) * CELL - y;
+                if (distance == Double.POSITIVE_INFINITY || dx * dx + dy * dy <= distance * distance) {
+                    cells[n++] = c;
+                }
+            }
+        }
+        return Arrays.copyOf(cells, n);
+    }
+
+    /**
+     * Returns the clearance of a cell.
+     *
+     * @param cell The cell index.
+     * @return The clearance in pixels, at most {@code MAX_CLEARANCE}.
+     */
+    public double getClearance(int cell) {
+        return clearance[cell];
+    }
+
+    /**
+     * Returns the x-coordinate of the left edge of a cell.
+     *
+     * @param cell The cell index.
+     * @return The x-coordinate.
+     */
+    public double getCellX(int cell) {
+        return (cell % columns) * CELL;
+    }
+
+    /**
+     * Returns the y-coordinate of the top edge of a cell.
+     *
+     * @param cell The cell index.
+     * @return The y-coordinate.
+     */
+    public double getCellY(int cell) {
+        return (cell / columns) * CELL;
+    }
+}
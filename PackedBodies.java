@@ -0,0 +1,159 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Objects of one tick phase copied into parallel coordinate arrays for a {@link MotionKernel}.
+ * <p>
+ * The arena refills the arrays at the start of each phase that uses them; the
+ * arrays only grow, so steady-state ticks allocate nothing.
+ * </p>
+ */
+class PackedBodies {
+    /** Robots whose class keeps the movement of {@link Robot#update()}. */
+    private static final ClassValue<Boolean> DEFAULT_MOTION = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("update").getDeclaringClass() == Robot.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    AbstractObject[] objects = new AbstractObject[16];
+    double[] x = new double[16];
+    double[] y = new double[16];
+    double[] radius = new double[16];
+    double[] speed = new double[16];
+    double[] cos = new double[16];
+    double[] sin = new double[16];
+    double[] direction = new double[16];
+    int[] hits = new int[16];
+    int size = 0;
+
+    /**
+     * Checks whether the kernel can move a robot instead of its {@code update()} method.
+     */
+    static boolean hasDefaultMotion(Robot robot) {
+        return DEFAULT_MOTION.get(robot.getClass());
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Appends the position and radius of an object.
+     */
+    void add(AbstractObject obj) {
+        if (size == x.length) {
+            grow();
+        }
+        objects[size] = obj;
+        x[size] = obj.x;
+        y[size] = obj.y;
+        radius[size] = obj.radius;
+        size++;
+    }
+
+    /**
+     * Appends a robot together with its speed and heading.
+     */
+    void addMoving(Robot robot) {
+        add(robot);
+        int i = size - 1;
+        if (Double.doubleToRawLongBits(robot.direction) != Double.doubleToRawLongBits(robot.headingDirection)) {
+            robot.headingDirection = robot.direction; // Directions rarely change, so the trigonometry is cached
+            robot.headingCos = Math.cos(Math.toRadians(robot.direction));
+            robot.headingSin = Math.sin(Math.toRadians(robot.direction));
+        }
+        speed[i] = robot.speed;
+        cos[i] = robot.headingCos;
+        sin[i] = robot.headingSin;
+        direction[i] = robot.direction;
+    }
+
+    /**
+     * Adds the black hole pull at each packed robot's position to its position.
+     */
+    void pull(GravityField field) {
+        for (int i = 0; i < size; i++) {
+            double fx = field.getForceX(x[i], y[i]);
+            double fy = field.getForceY(x[i], y[i]);
+            x[i] += fx;
+            y[i] += fy;
+        }
+    }
+
+    /**
+     * Moves the packed robots with the kernel and writes the results back.
+     */
+    void integrate(MotionKernel kernel, double width, double height) {
+        kernel.integrate(x, y, radius, speed, cos, sin, direction, size, width, height);
+        for (int i = 0; i < size; i++) {
+            Robot robot = (Robot) objects[i];
+            robot.x = x[i];
+            robot.y = y[i];
+            robot.direction = direction[i];
+            objects[i] = null; // Do not keep removed robots alive until the next tick
+        }
+        size = 0;
+    }
+
+    /**
+     * Finds the packed objects that overlap a robot.
+     *
+     * @return The number of hits, whose indices are in {@link #hits}.
+     */
+    int overlaps(MotionKernel kernel, AbstractObject obj) {
+        return kernel.overlaps(obj.x, obj.y, obj.radius, x, y, radius, size, hits);
+    }
+
+    /**
+     * Inserts the packed objects into a grid, with their packed index as handle.
+     */
+    void index(HierarchicalGrid grid) {
+        grid.clear();
+        for (int i = 0; i < size; i++) {
+            grid.add(i, x[i], y[i], radius[i]);
+        }
+    }
+
+    /**
+     * Finds the packed objects that overlap a robot through a grid filled by {@link #index},
+     * leaving out those marked in {@code skip}.
+     * <p>
+     * The hits are sorted, so they come in the same order as from the kernel.
+     * </p>
+     *
+     * @return The number of hits, whose indices are in {@link #hits}.
+     */
+    int overlaps(HierarchicalGrid grid, AbstractObject obj, boolean[] skip) {
+        int found = grid.query(obj.x, obj.y, obj.radius, hits, skip);
+        Arrays.sort(hits, 0, found);
+        return found;
+    }
+
+    /**
+     * Drops the object references once a phase is done.
+     */
+    void release() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        objects = Arrays.copyOf(objects, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        cos = Arrays.copyOf(cos, capacity);
+        sin = Arrays.copyOf(sin, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        hits = Arrays.copyOf(hits, capacity);
+    }
+}
@@ -0,0 +1,149 @@
+package Robot_Sim;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+/**
+ * Collects the numbers shown in the performance part of the info panel.
+ * <p>
+ * {@link #sample(long, Arena)} is called once per frame and only counts the frame.
+ * Every {@code refreshNanos} it turns the counters gathered since the last refresh
+ * into rates and averages: frames and ticks per second, the mean duration of each
+ * tick phase, garbage collections and heap usage. Object counts come from the
+ * arena's cached per-type counters, so nothing here scans the arena.
+ * </p>
+ */
+public class PerformanceOverlay {
+    private static final SimulationMetrics.Phase[] PHASES = SimulationMetrics.Phase.values();
+    private static final List<Class<? extends AbstractObject>> TYPES = List.of(
+            BumpSensorRobot.class, WhiskerRobot.class, BeamSensorRobot.class, SwarmRobot.class, ControlBot.class,
+            Obstacle.class, TeleportPad.class, BlackHole.class);
+
+    private final long refreshNanos;	// Minimum time between two refreshes
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    // State at the start of the current window
+    private long windowStart = 0;
+    private int frames = 0;
+    private long windowTick;
+    private long windowMetricTicks;
+    private final long[] windowPhaseNanos = new long[PHASES.length];
+    private long windowGcCount;
+    private long windowGcMillis;
+
+    // Values computed at the last refresh
+    private double fps;
+    private double ticksPerSecond;
+    private final double[] phaseMicros = new double[PHASES.length];	// Mean time per tick (per frame for RENDER)
+    private long gcCount;
+    private long gcMillis;
+    private long heapUsed;
+    private long heapMax;
+
+    /**
+     * Creates an overlay that refreshes at most {@code refreshHz} times per second.
+     *
+     * @param refreshHz The refresh rate of the overlay.
+     */
+    public PerformanceOverlay(double refreshHz) {
+        this.refreshNanos = (long) (1e9 / refreshHz);
+    }
+
+    /**
+     * Counts one frame and refreshes the values if the window has elapsed.
+     *
+     * @param now   The frame time in nanoseconds, as passed to the animation timer.
+     * @param arena The arena being displayed.
+     * @return {@code true} if the values were refreshed and the panel should be redrawn.
+     */
+    public boolean sample(long now, Arena arena) {
+        frames++;
+        if (windowStart == 0) {
+            startWindow(now, arena);
+            return false;
+        }
+        long elapsed = now - windowStart;
+        if (elapsed < refreshNanos) {
+            return false;
+        }
+
+        SimulationMetrics metrics = arena.getMetrics();
+        fps = frames * 1e9 / elapsed;
+        ticksPerSecond = (arena.getTick() - windowTick) * 1e9 / elapsed;
+        long metricTicks = metrics.getTicks() - windowMetricTicks;
+        for (SimulationMetrics.Phase phase : PHASES) {
+            long nanos = metrics.getPhaseNanos(phase) - windowPhaseNanos[phase.ordinal()];
+            long count = phase == SimulationMetrics.Phase.RENDER ? frames : metricTicks;
+            phaseMicros[phase.ordinal()] = count > 0 ? nanos / 1e3 / count : 0;
+        }
+        long totalGcCount = 0;
+        long totalGcMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            totalGcCount += Math.max(0, collector.getCollectionCount());
+            totalGcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        gcCount = totalGcCount - windowGcCount;
+        gcMillis = totalGcMillis - windowGcMillis;
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        heapUsed = heap.getUsed();
+        heapMax = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+
+        startWindow(now, arena);
+        return true;
+    }
+
+    /**
+     * Remembers the counters at the start of a new window.
+     */
+    private void startWindow(long now, Arena arena) {
+        SimulationMetrics metrics = arena.getMetrics();
+        windowStart = now;
+        frames = 0;
+        windowTick = arena.getTick();
+        windowMetricTicks = metrics.getTicks();
+        for (SimulationMetrics.Phase phase : PHASES) {
+            windowPhaseNanos[phase.ordinal()] = metrics.getPhaseNanos(phase);
+        }
+        windowGcCount = 0;
+        windowGcMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            windowGcCount += Math.max(0, collector.getCollectionCount());
+            windowGcMillis += Math.max(0, collector.getCollectionTime());
+        }
+    }
+
+    /**
+     * Appends the performance figures and the object counts to the panel text.
+     *
+     * @param info  The text being built.
+     * @param arena The arena being displayed.
+     */
+    public void appendTo(StringBuilder info, Arena arena) {
+        info.append(String.format("FPS: %.0f   Ticks/s: %.0f%n", fps, ticksPerSecond));
+        info.append("Kernel: ").append(arena.getMotionKernel().getName()).append("\n");
+        if (arena.getMetrics().isEnabled()) {
+            info.append("\nPhase time (us):\n");
+            for (SimulationMetrics.Phase phase : PHASES) {
+                info.append(String.format("  %-10s %8.1f%n", phase.name().toLowerCase(), phaseMicros[phase.ordinal()]));
+            }
+        } else {
+            info.append("\nPhase time: metrics disabled\n");
+        }
+        info.append(String.format("%nGC: %d in %d ms%n", gcCount, gcMillis));
+        info.append(String.format("Heap: %d / %d MB%n", heapUsed >> 20, heapMax >> 20));
+
+        info.append("\nRobots: ").append(arena.getRobotsCount()).append("\n");
+        info.append("Sleeping robots: ").append(arena.getSleepingCount()).append("\n");
+        info.append("Obstacles: ").append(arena.getObstaclesCount()).append("\n");
+        for (Class<? extends AbstractObject> type : TYPES) {
+            int count = arena.getCount(type);
+            if (count > 0) {
+                info.append("  ").append(type.getSimpleName()).append(": ").append(count).append("\n");
+            }
+        }
+    }
+}
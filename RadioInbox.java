@@ -0,0 +1,126 @@
+package Robot_Sim;
+
+/**
+ * Messages a robot's radio received in the previous tick, in a fixed number of slots.
+ * <p>
+ * A message is the sender's id and a 64-bit payload; robots pack whatever they
+ * need to share into the payload, so an inbox is a few primitive arrays allocated
+ * once when the robot is equipped (see {@link Arena#equipRadio(Robot)}). When more
+ * messages arrive than the inbox holds, the ones from the farthest senders are
+ * dropped and counted, like weaker signals, which keeps memory bounded however
+ * many robots are in range. The inbox is refilled at the end of every tick, so a
+ * robot reads it in {@link Robot#sense(Arena)}.
+ * </p>
+ */
+public class RadioInbox {
+    private final int[] senders;
+    private final long[] payloads;
+    private final double[] distances;	// Distance to the sender when it broadcast
+    private int size = 0;
+    private int dropped = 0;	// Messages that did not fit in the last delivery
+    int sent = 0;				// Broadcasts of the owner in the current tick
+
+    /**
+     * Creates an empty inbox.
+     *
+     * @param capacity The number of messages it holds per tick.
+     */
+    RadioInbox(int capacity) {
+        senders = new int[capacity];
+        payloads = new long[capacity];
+        distances = new double[capacity];
+    }
+
+    /**
+     * Stores a message; if the inbox is full, the message from the farthest sender is dropped.
+     *
+     * @return {@code true} if the inbox was empty before.
+     */
+    boolean offer(int sender, long payload, double distance) {
+        boolean first = size == 0;
+        int slot = size;
+        if (size == senders.length) {
+            dropped++;
+            slot = 0;
+            for (int i = 1; i < size; i++) {
+                if (distances[i] >= distances[slot]) {
+                    slot = i; // Farthest, the latest of equally far ones
+                }
+            }
+            if (distance >= distances[slot]) {
+                return false; // The new message is the weakest
+            }
+        } else {
+            size++;
+        }
+        senders[slot] = sender;
+        payloads[slot] = payload;
+        distances[slot] = distance;
+        return first;
+    }
+
+    /**
+     * Empties the inbox before the next delivery.
+     */
+    void clear() {
+        size = 0;
+        dropped = 0;
+    }
+
+    /**
+     * Returns the number of messages received, in the order they were broadcast unless some were dropped.
+     *
+     * @return The number of valid slots.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of the robot that sent a message.
+     *
+     * @param i The slot, below {@link #size()}.
+     * @return The sender's id.
+     */
+    public int getSender(int i) {
+        return senders[i];
+    }
+
+    /**
+     * Returns the payload of a message.
+     *
+     * @param i The slot, below {@link #size()}.
+     * @return The payload.
+     */
+    public long getPayload(int i) {
+        return payloads[i];
+    }
+
+    /**
+     * Returns how far the sender of a message was when it broadcast.
+     *
+     * @param i The slot, below {@link #size()}.
+     * @return The distance between the centres.
+     */
+    public double getDistance(int i) {
+        return distances[i];
+    }
+
+    /**
+     * Returns how many messages did not fit into the inbox.
+     *
+     * @return The number of dropped messages of the last delivery.
+     */
+    public int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Returns the number of messages the inbox holds per tick.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return senders.length;
+    }
+}
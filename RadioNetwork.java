@@ -0,0 +1,206 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Range-limited radio between robots, delivered in one batch per tick.
+ * <p>
+ * Broadcasts made during a tick are only queued, with the sender's position at
+ * the time. At the end of the tick every queued broadcast is delivered in the
+ * order it was made to the equipped robots within {@link #getRange() range} of
+ * where it was sent, found with one radius query on the arena's
+ * {@link NeighbourGrid}, so delivery costs the number of receivers rather than the
+ * number of robots. Two limits keep a tick's traffic bounded: a robot sends at
+ * most {@link #getBroadcastLimit()} messages per tick, and its {@link RadioInbox}
+ * drops the messages of the farthest senders when more arrive than it holds.
+ * </p>
+ */
+public class RadioNetwork {
+    private double range = 100;		// Largest distance between sender and receiver centres
+    private int broadcastLimit = 1;	// Broadcasts per robot and tick
+    private int inboxCapacity = 16;	// Slots of newly equipped inboxes
+    private Robot[] outboxSenders = new Robot[16];
+    private double[] outboxX = new double[16];
+    private double[] outboxY = new double[16];
+    private long[] outboxPayloads = new long[16];
+    private int outbox = 0;
+    private RadioInbox[] filled = new RadioInbox[64];	// Inboxes holding messages of the last delivery
+    private int filledCount = 0;
+    private final NeighbourResult receivers = new NeighbourResult(64);
+    private int delivered = 0;
+    private int dropped = 0;
+
+    /**
+     * Queues a broadcast from a robot's current position.
+     *
+     * @param sender  The sending robot, which must carry a radio.
+     * @param payload The message.
+     * @return {@code false} if the sender has no radio or already used up its broadcasts for this tick.
+     */
+    boolean send(Robot sender, long payload) {
+        RadioInbox inbox = sender.inbox;
+        if (inbox == null || inbox.sent >= broadcastLimit) {
+            return false;
+        }
+        inbox.sent++;
+        if (outbox == outboxSenders.length) {
+            int capacity = outbox * 2;
+            outboxSenders = Arrays.copyOf(outboxSenders, capacity);
+            outboxX = Arrays.copyOf(outboxX, capacity);
+            outboxY = Arrays.copyOf(outboxY, capacity);
+            outboxPayloads = Arrays.copyOf(outboxPayloads, capacity);
+        }
+        outboxSenders[outbox] = sender;
+        outboxX[outbox] = sender.x;
+        outboxY[outbox] = sender.y;
+        outboxPayloads[outbox] = payload;
+        outbox++;
+        return true;
+    }
+
+    /**
+     * Replaces the inbox contents with the broadcasts queued in this tick.
+     *
+     * @param index   The arena's robot index.
+     * @param objects The objects of the arena, without tombstones.
+     */
+    void deliver(NeighbourGrid index, List<AbstractObject> objects) {
+        clearFilled();
+        delivered = 0;
+        dropped = 0;
+        if (outbox == 0) {
+            return;
+        }
+        index.ensure(objects);
+        for (int b = 0; b < outbox; b++) {
+            Robot sender = outboxSenders[b];
+            index.within(outboxX[b], outboxY[b], range, sender, receivers);
+            for (int r = 0; r < receivers.size; r++) {
+                RadioInbox inbox = receivers.robots[r].inbox;
+                if (inbox == null) {
+                    continue; // No radio
+                }
+                if (inbox.offer(sender.id, outboxPayloads[b], receivers.distance[r])) {
+                    if (filledCount == filled.length) {
+                        filled = Arrays.copyOf(filled, filledCount * 2);
+                    }
+                    filled[filledCount++] = inbox;
+                }
+            }
+            receivers.clear();
+            if (sender.inbox != null) {
+                sender.inbox.sent = 0;
+            }
+            outboxSenders[b] = null;
+        }
+        outbox = 0;
+        for (int f = 0; f < filledCount; f++) {
+            delivered += filled[f].size();
+            dropped += filled[f].getDropped();
+        }
+    }
+
+    /**
+     * Drops queued broadcasts and delivered messages, e.g. when the arena is cleared.
+     */
+    void clear() {
+        Arrays.fill(outboxSenders, 0, outbox, null);
+        outbox = 0;
+        clearFilled();
+    }
+
+    /**
+     * Empties the inboxes filled by the last delivery.
+     */
+    private void clearFilled() {
+        for (int f = 0; f < filledCount; f++) {
+            filled[f].clear();
+            filled[f] = null;
+        }
+        filledCount = 0;
+    }
+
+    /**
+     * Creates an inbox with the current capacity.
+     */
+    RadioInbox createInbox() {
+        return new RadioInbox(inboxCapacity);
+    }
+
+    /**
+     * Returns the radio range.
+     *
+     * @return The largest distance between the centres of sender and receiver.
+     */
+    public double getRange() {
+        return range;
+    }
+
+    /**
+     * Sets the radio range.
+     *
+     * @param range The largest distance between the centres of sender and receiver.
+     */
+    public void setRange(double range) {
+        this.range = range;
+    }
+
+    /**
+     * Returns how many messages a robot may broadcast per tick.
+     *
+     * @return The broadcast limit.
+     */
+    public int getBroadcastLimit() {
+        return broadcastLimit;
+    }
+
+    /**
+     * Sets how many messages a robot may broadcast per tick.
+     *
+     * @param broadcastLimit The broadcast limit, further broadcasts in the same tick are refused.
+     */
+    public void setBroadcastLimit(int broadcastLimit) {
+        this.broadcastLimit = broadcastLimit;
+    }
+
+    /**
+     * Returns the number of messages an inbox holds per tick.
+     *
+     * @return The capacity of newly equipped radios.
+     */
+    public int getInboxCapacity() {
+        return inboxCapacity;
+    }
+
+    /**
+     * Sets the number of messages an inbox holds per tick; radios equipped earlier keep their capacity.
+     *
+     * @param inboxCapacity The capacity, at least 1.
+     * @throws IllegalArgumentException If the capacity is below 1.
+     */
+    public void setInboxCapacity(int inboxCapacity) {
+        if (inboxCapacity < 1) {
+            throw new IllegalArgumentException("Inbox capacity must be at least 1: " + inboxCapacity);
+        }
+        this.inboxCapacity = inboxCapacity;
+    }
+
+    /**
+     * Returns the number of messages stored by the last delivery.
+     *
+     * @return The messages that reached an inbox.
+     */
+    public int getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * Returns the number of messages the last delivery dropped because an inbox was full.
+     *
+     * @return The dropped messages.
+     */
+    public int getDropped() {
+        return dropped;
+    }
+}
@@ -15,6 +15,23 @@ public abstract class Robot extends AbstractObject {
     /** The direction of the robot's movement, expressed as an angle in degrees. */
     protected double direction;
 
+    /** The first tick at which the robot may interact with something, see {@link Arena#setEventDriven}. */
+    long wake = 0;
+
+    /** Whether the arena skips the robot because nothing about it changed for a while. */
+    boolean sleeping = false;
+    int quietTicks = 0;		// Consecutive checks in which position and direction stayed the same
+    double lastX, lastY, lastDirection;	// State at the previous check
+
+    /** Steers the robot in the arena's control phase, see {@link Arena#setController}. */
+    RobotController controller;
+
+    /** Messages received by the robot's radio, {@code null} if it has none, see {@link Arena#equipRadio}. */
+    RadioInbox inbox;
+
+    double headingDirection = Double.NaN;	// Direction the cached heading below belongs to
+    double headingCos, headingSin;		// Cosine and sine of that direction, used by the motion kernel
+
     /**
      * Constructs a {@code Robot} with the specified position, radius, speed, and direction.
      *
@@ -30,14 +47,69 @@ public abstract class Robot extends AbstractObject {
         this.direction = direction;
     }
 
+    /**
+     * Gives a recycled robot a new position, size, speed and direction.
+     *
+     * @param x         The x-coordinate of the robot.
+     * @param y         The y-coordinate of the robot.
+     * @param radius    The radius of the robot.
+     * @param speed     The speed of the robot.
+     * @param direction The direction of the robot in degrees.
+     */
+    void reset(double x, double y, double radius, double speed, double direction) {
+        reset(x, y, radius);
+        this.speed = speed;
+        this.direction = direction;
+        this.controller = null; // The arena assigns the default controller again
+        this.inbox = null;
+    }
+
+    /**
+     * Returns the speed of the robot.
+     *
+     * @return The speed of the robot.
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Returns the controller that steers the robot.
+     *
+     * @return The controller, or {@code null} if the robot only uses {@link #sense(Arena)}.
+     */
+    public RobotController getController() {
+        return controller;
+    }
+
+    /**
+     * Returns the messages the robot's radio received in the previous tick.
+     *
+     * @return The inbox, or {@code null} if the robot has no radio.
+     */
+    public RadioInbox getInbox() {
+        return inbox;
+    }
+
+    /**
+     * Returns the direction of the robot.
+     *
+     * @return The direction of the robot in degrees.
+     */
+    public double getDirection() {
+        return direction;
+    }
+
     /**
      * Abstract method for robot-specific sensing functionality.
      * <p>
      * Subclasses must implement this method to define how the robot detects its
      * environment (e.g., using whiskers, beams, or other sensors).
      * </p>
+     *
+     * @param arena The arena the robot is in, passed explicitly so several arenas can run side by side.
      */
-    public abstract void sense();
+    public abstract void sense(Arena arena);
 
     /**
      * Updates the robot's position based on its speed and direction.
@@ -74,6 +146,14 @@ public abstract class Robot extends AbstractObject {
         direction = (direction + 360) % 360;
     }
 
+    /**
+     * Includes the wheels drawn just outside the body.
+     */
+    @Override
+    public double getRenderRadius() {
+        return radius * 1.35;
+    }
+
     /**
      * Checks if the robot is colliding with another object.
      *
@@ -81,7 +161,9 @@ public abstract class Robot extends AbstractObject {
      * @return {@code true} if the robot is colliding with the other object, {@code false} otherwise.
      */
     public boolean checkCollision(AbstractObject other) {
-        double distance = Math.sqrt(Math.pow(this.x - other.x, 2) + Math.pow(this.y - other.y, 2));
+        double dx = this.x - other.x;
+        double dy = this.y - other.y;
+        double distance = Math.sqrt(dx * dx + dy * dy);
         return distance < (this.radius + other.radius);
     }
 
@@ -0,0 +1,87 @@
+package Robot_Sim;
+
+/**
+ * Steers robots from a batch of sensor readings.
+ * <p>
+ * The arena groups the robots that share a controller and calls
+ * {@link #control} once per chunk of robots instead of once per robot. Readings
+ * and commands are stored as parallel arrays ({@link SensorBatch},
+ * {@link CommandBatch}), so the loop inside a controller is plain array code the
+ * JIT can unroll and vectorise. Large batches are split into chunks that run on
+ * the common fork/join pool in parallel, so implementations must only touch the
+ * indices they are given and must not keep per-call state in fields.
+ * </p>
+ * <p>
+ * Assign a controller with {@link Arena#setController(Robot, RobotController)}.
+ * {@code WhiskerRobot} and {@code BeamSensorRobot} use
+ * {@link AvoidanceController#WHISKER} and {@link AvoidanceController#BEAM} unless
+ * told otherwise.
+ * </p>
+ */
+public interface RobotController {
+
+    /**
+     * Computes heading and speed commands for the robots {@code from} (inclusive) to
+     * {@code to} (exclusive).
+     * <p>
+     * {@code commands} starts out holding every robot's current direction and speed,
+     * so a controller only writes the values it wants to change.
+     * </p>
+     *
+     * @param sensors  The readings of the batch.
+     * @param commands The commands to fill in.
+     * @param from     The first index to handle.
+     * @param to       One past the last index to handle.
+     */
+    void control(SensorBatch sensors, CommandBatch commands, int from, int to);
+
+    /**
+     * Called once per tick on the thread running the ticks, before {@link #control} runs for any chunk.
+     * <p>
+     * Lets a controller fetch shared data every chunk reads, such as the
+     * {@link FlowField} of a {@link GoalController}. Only called while at least one
+     * robot uses the controller.
+     * </p>
+     */
+    default void prepare() {
+    }
+
+    /**
+     * Returns how far beyond the two radii an obstacle counts as a contact.
+     *
+     * @return The sensor range, used to fill {@link SensorBatch#contacts}.
+     */
+    default double getSensorRange() {
+        return 0;
+    }
+
+    /**
+     * Returns how many of the nearest robots the controller reads.
+     * <p>
+     * When this is above 0, the arena fills the {@code neighbour*} arrays of
+     * {@link SensorBatch} from a spatial index of the robots, with the state every
+     * robot had at the start of the control phase.
+     * </p>
+     *
+     * @return The number of neighbours per robot, 0 if the controller does not use them.
+     */
+    default int getNeighbourCount() {
+        return 0;
+    }
+
+    /**
+     * Returns whether the controller only reacts to contacts.
+     * <p>
+     * A reactive controller leaves a robot unchanged when its
+     * {@link SensorBatch#contacts} reading is 0. The arena may then skip robots with
+     * nothing nearby, e.g. sleeping robots or robots the event-driven mode knows to be
+     * clear. Controllers that steer on their own, like a random walk, must return
+     * {@code false}.
+     * </p>
+     *
+     * @return {@code true} if robots without contacts can be skipped.
+     */
+    default boolean isReactive() {
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package Robot_Sim;
+
+/**
+ * Plain loop implementation of {@link MotionKernel}.
+ * <p>
+ * Used when the Vector API is not available. {@code VectorMotionKernel} also uses it
+ * for the elements left over after its last full vector.
+ * </p>
+ */
+public class ScalarMotionKernel implements MotionKernel {
+
+    @Override
+    public void integrate(double[] x, double[] y, double[] radius, double[] speed, double[] cos, double[] sin,
+                          double[] direction, int n, double width, double height) {
+        integrate(x, y, radius, speed, cos, sin, direction, 0, n, width, height);
+    }
+
+    /**
+     * Integrates the robots {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    static void integrate(double[] x, double[] y, double[] radius, double[] speed, double[] cos, double[] sin,
+                          double[] direction, int from, int to, double width, double height) {
+        for (int i = from; i < to; i++) {
+            double px = x[i] + speed[i] * cos[i];
+            double py = y[i] + speed[i] * sin[i];
+            double r = radius[i];
+            double d = direction[i];
+
+            if (px - r < 0) {
+                px = r;
+                d = 180 - d;
+            } else if (px + r > width) {
+                px = width - r;
+                d = 180 - d;
+            }
+
+            if (py - r < 0) {
+                py = r;
+                d = -d;
+            } else if (py + r > height) {
+                py = height - r;
+                d = -d;
+            }
+
+            x[i] = px;
+            y[i] = py;
+            direction[i] = (d + 360) % 360;
+        }
+    }
+
+    @Override
+    public int overlaps(double px, double py, double pr, double[] x, double[] y, double[] radius, int n, int[] hits) {
+        return overlaps(px, py, pr, x, y, radius, 0, n, hits, 0);
+    }
+
+    /**
+     * Tests the circles {@code from} (inclusive) to {@code to} (exclusive) and appends hits after {@code found}.
+     *
+     * @return The new number of hits.
+     */
+    static int overlaps(double px, double py, double pr, double[] x, double[] y, double[] radius,
+                        int from, int to, int[] hits, int found) {
+        for (int j = from; j < to; j++) {
+            double dx = px - x[j];
+            double dy = py - y[j];
+            if (Math.sqrt(dx * dx + dy * dy) < pr + radius[j]) {
+                hits[found++] = j;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,76 @@
+package Robot_Sim;
+
+import java.util.Arrays;
+
+/**
+ * Sensor readings of a batch of robots, one array element per robot.
+ * <p>
+ * Filled by the arena before a {@link RobotController} runs. The arrays may be
+ * longer than {@link #size}; only the first {@code size} elements are valid.
+ * </p>
+ */
+public class SensorBatch {
+    /** The number of robots in the batch. */
+    public int size;
+    /** The ids of the robots. */
+    public int[] ids = new int[0];
+    public double[] x = new double[0];
+    public double[] y = new double[0];
+    public double[] radius = new double[0];
+    public double[] direction = new double[0];
+    public double[] speed = new double[0];
+    /** The number of obstacles within the controller's sensor range. */
+    public int[] contacts = new int[0];
+    /** The distance between the robot's edge and the edge of the nearest obstacle, infinite if there is none. */
+    public double[] nearestGap = new double[0];
+    /** The direction towards the nearest obstacle in degrees, 0 if there is none. */
+    public double[] nearestBearing = new double[0];
+    /** The number of neighbours requested per robot, see {@link RobotController#getNeighbourCount()}. */
+    public int neighbours;
+    /** The number of neighbours found per robot, at most {@link #neighbours}. */
+    public int[] neighbourCount = new int[0];
+    /**
+     * The offset from the robot to its {@code j}-th nearest robot at {@code [i * neighbours + j]}, nearest first.
+     */
+    public double[] neighbourDx = new double[0];
+    public double[] neighbourDy = new double[0];
+    /** The heading of the {@code j}-th nearest robot as a unit vector, at {@code [i * neighbours + j]}. */
+    public double[] neighbourCos = new double[0];
+    public double[] neighbourSin = new double[0];
+
+    /**
+     * Makes room for {@code n} robots and sets the size.
+     */
+    void resize(int n) {
+        if (ids.length < n) {
+            int capacity = Math.max(n, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            radius = Arrays.copyOf(radius, capacity);
+            direction = Arrays.copyOf(direction, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+            contacts = Arrays.copyOf(contacts, capacity);
+            nearestGap = Arrays.copyOf(nearestGap, capacity);
+            nearestBearing = Arrays.copyOf(nearestBearing, capacity);
+        }
+        size = n;
+    }
+
+    /**
+     * Makes room for {@code k} neighbours of each of the {@link #size} robots.
+     */
+    void resizeNeighbours(int k) {
+        neighbours = k;
+        if (neighbourCount.length < size) {
+            neighbourCount = new int[ids.length];
+        }
+        if (neighbourDx.length < size * k) {
+            int capacity = ids.length * k;
+            neighbourDx = new double[capacity];
+            neighbourDy = new double[capacity];
+            neighbourCos = new double[capacity];
+            neighbourSin = new double[capacity];
+        }
+    }
+}
@@ -4,13 +4,19 @@ package Robot_Sim;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
@@ -38,8 +44,14 @@ public class Simulation extends Application {
     private boolean isRunning = false;
     private AbstractObject selectedObject = null; // Tracks the currently selected object
     private ControlBot controlBot; // ControlBot reference
-    private boolean isMovingUp = false, isMovingDown = false, isMovingLeft = false, isMovingRight = false;
+    private SimulationRecorder recorder; // Active recording, null if not recording
+    private TrajectoryWriter trajectory; // Optional trajectory export, enabled with -Drobotsim.trajectory=<file>
     private Text infoText;
+    private final StringBuilder infoBuilder = new StringBuilder(); // Reused for every panel refresh
+    private final List<AbstractObject> regionObjects = new ArrayList<>(); // Reused by redrawRegion
+    private final PerformanceOverlay overlay = new PerformanceOverlay(4); // Performance figures, refreshed 4 times per second
+    private AutosaveManager autosave; // Background checkpoints of the arena
+    private static final Path AUTOSAVE_DIR = Paths.get("autosave");
     
     
     /**
@@ -60,6 +72,19 @@ public class Simulation extends Application {
         GraphicsContext gc = canvas.getGraphicsContext2D();
         root.setCenter(canvas);
         Arena arena = new Arena();
+        arena.getMetrics().setEnabled(true); // The info panel shows the phase breakdown
+        arena.getMetrics().register("gui"); // Tick metrics for JConsole/VisualVM
+        autosave = new AutosaveManager(AUTOSAVE_DIR, 300, 20); // Checkpoint every 300 ticks, compact after 20 deltas
+        String trajectoryFile = System.getProperty("robotsim.trajectory");
+        if (trajectoryFile != null) {
+            try {
+                // Sample every 10 ticks, 64k rows per chunk, drop samples if the disk can't keep up
+                trajectory = new TrajectoryWriter(Paths.get(trajectoryFile), 10, 65536, 8,
+                        TrajectoryWriter.OverflowPolicy.DROP);
+            } catch (IOException e) {
+                System.err.println("Failed to open trajectory file: " + e.getMessage());
+            }
+        }
 
         // Information panel
         VBox infoPanel = new VBox();
@@ -80,7 +105,7 @@ public class Simulation extends Application {
 
         //Create a ComboBox for robot selection
         ComboBox<String> robotSelector = new ComboBox<>();
-        robotSelector.getItems().addAll("BumpSensorRobot", "WhiskerRobot", "BeamSensorRobot", "ControlBot");
+        robotSelector.getItems().addAll("BumpSensorRobot", "WhiskerRobot", "BeamSensorRobot", "SwarmRobot", "ControlBot");
         robotSelector.setValue("BumpSensorRobot"); // Default 
         
         //Create a ComboBox for obstacle selection
@@ -101,9 +126,16 @@ public class Simulation extends Application {
         Button helpButton = new Button("Help");
         Button saveButton = new Button("Save");
         Button loadButton = new Button("Load");
+        Button restoreButton = new Button("Restore Autosave");
+        Button recordButton = new Button("Record");
+        Button populateButton = new Button("Populate");
+
+        //Mix for the Populate button, e.g. "WhiskerRobot=100, Obstacle=10"
+        TextField populateField = new TextField("BumpSensorRobot=50, WhiskerRobot=50, BeamSensorRobot=50, Obstacle=10");
+        populateField.setPromptText("Type=count, ...");
 
         //Top button menu
-        HBox topMenu = new HBox(10, aboutButton, helpButton, saveButton, loadButton);
+        HBox topMenu = new HBox(10, aboutButton, helpButton, saveButton, loadButton, restoreButton, recordButton, populateField, populateButton);
         topMenu.setAlignment(Pos.TOP_LEFT); 
         topMenu.setPadding(new javafx.geometry.Insets(10, 0, 0, 10));
         root.setTop(topMenu);
@@ -131,27 +163,35 @@ public class Simulation extends Application {
 
                 // Render arena objects
                 arena.updateObjects();
+                autosave.tick(arena);
+                long renderStart = arena.getMetrics().start();
+                SimulationEvents.RenderEvent renderEvent = new SimulationEvents.RenderEvent();
+                renderEvent.begin();
                 for (AbstractObject obj : arena.getObjects()) {
-                    if (obj == selectedObject) {
-                        // Highlight selected object
-                        gc.setStroke(Color.RED);
-                        gc.setLineWidth(2);
-                        gc.strokeOval(obj.getX() - obj.getRadius() - 2, obj.getY() - obj.getRadius() - 2,
-                                obj.getRadius() * 2 + 4, obj.getRadius() * 2 + 4);
-                    }
-                    obj.render(gc);
+                    renderObject(gc, obj);
+                }
+                arena.getMetrics().endPhase(SimulationMetrics.Phase.RENDER, renderStart);
+                if (renderEvent.shouldCommit()) {
+                    renderEvent.tick = arena.getTick();
+                    renderEvent.objects = arena.getObjects().size();
+                    renderEvent.commit();
                 }
 
                 // Handle ControlBot movement
                 if (controlBot != null) {
-                    if (isMovingUp) controlBot.moveUp();
-                    if (isMovingDown) controlBot.moveDown();
-                    if (isMovingLeft) controlBot.moveLeft();
-                    if (isMovingRight) controlBot.moveRight();
+                    controlBot.applyInput();
+                }
+                if (recorder != null) {
+                    recorder.afterTick();
+                }
+                if (trajectory != null) {
+                    trajectory.sample(arena);
                 }
 
-                // Update the information panel
-                updateInfoPanel(arena);
+                // Update the information panel a few times per second
+                if (overlay.sample(now, arena)) {
+                    updateInfoPanel(arena);
+                }
             }
         };
 
@@ -171,51 +211,52 @@ public class Simulation extends Application {
         });
 
         newArenaButton.setOnAction(e -> {
-            arena.clearObjects();
+            arena.requestClear();
             controlBot = null; // Reset ControlBot when clearing arena
             selectedObject = null; // Clear selection
+            applyEdits(arena);
             updateInfoPanel(arena); // Ensure panel updates after clearing
         });
 
         addRobotButton.setOnAction(e -> {
             String selectedRobot = robotSelector.getValue();
-            switch (selectedRobot) {
-                case "BumpSensorRobot":
-                    arena.addObject(arena.createRandomRobot());
-                    break;
-                case "WhiskerRobot":
-                    arena.addObject(arena.createRandomWhiskerRobot());
-                    break;
-                case "BeamSensorRobot":
-                    arena.addObject(arena.createRandomBeamSensorRobot());
-                    break;
-                case "ControlBot":
-                    if (controlBot == null) {
-                        controlBot = new ControlBot(250, 250, 15, 2, 0); // Initial position and size
-                        arena.addObject(controlBot);
-                    }
-                    break;
-            }
+            arena.submit(a -> {
+                if (!selectedRobot.equals("ControlBot")) {
+                    a.spawn(selectedRobot);
+                } else if (controlBot == null) {
+                    controlBot = (ControlBot) a.spawn(selectedRobot);
+                }
+            });
+            applyEdits(arena);
             updateInfoPanel(arena); // Update panel after adding a robot
         });
         
         
         addObstacleButton.setOnAction(e -> {
             String selectedObstacle = obstacleSelector.getValue();
-            switch (selectedObstacle) {
-                case "Normal Obstacle":
-                    arena.addObject(arena.createRandomObstacle()); // Normal obstacle creation method
-                    break;
-                case "TeleportPad":
-                    arena.addObject(arena.createRandomTeleportPad()); // TeleportPad creation method
-                    break;
-                case "BlackHole":
-                    arena.addObject(arena.createRandomBlackHole()); // BlackHole creation method
-                    break;
+            if (selectedObstacle.equals("Normal Obstacle")) {
+                arena.submit(a -> a.spawn("Obstacle")); // Normal obstacle creation method
+            } else {
+                arena.submit(a -> a.spawn(selectedObstacle)); // TeleportPad or BlackHole creation method
             }
+            applyEdits(arena);
             updateInfoPanel(arena); // Update the information panel after adding an obstacle
         });
 
+        populateButton.setOnAction(e -> {
+            Map<String, Integer> mix;
+            try {
+                mix = parseMix(populateField.getText());
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Failed to populate: " + ex.getMessage());
+                return;
+            }
+            arena.submit(a -> a.populate(mix));
+            applyEdits(arena);
+            redrawRegion(gc, arena, 0, 0, 500, 500);
+            updateInfoPanel(arena);
+        });
+
      // About button action
         aboutButton.setOnAction(e -> {
             javafx.scene.control.Alert aboutAlert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.INFORMATION);
@@ -240,19 +281,63 @@ public class Simulation extends Application {
                     + "- Stop: Stops the simulation.\n"
                     + "- New Arena: Clears all robots and obstacles from the arena.\n"
                     + "- Delete Selected: Removes the currently selected robot or obstacle from the arena.\n"
+                    + "- Restore Autosave: Restores the arena from the last automatic checkpoint.\n"
+                    + "- Record: Records the run into the recordings folder for replay.\n"
+                    + "- Populate: Adds the mix typed next to it (e.g. WhiskerRobot=100, Obstacle=10) without overlaps.\n"
                     + "Controls:\n"
-                    + "- Use W/A/S/D to control the ControlBot."
+                    + "- Use W/A/S/D to control the ControlBot.\n"
+                    + "- Shift+click: Sends the selected robot to the clicked point, around obstacles."
             );
             helpAlert.showAndWait();
         });
         
         saveButton.setOnAction(e -> {
             System.out.println("Save button clicked");
-            saveConfiguration(primaryStage);
+            saveConfiguration(primaryStage, arena);
         });
         loadButton.setOnAction(e -> {
             System.out.println("Load button clicked");
-            loadConfiguration(primaryStage);
+            loadConfiguration(primaryStage, arena);
+        });
+        recordButton.setOnAction(e -> {
+            if (recorder == null) {
+                try {
+                    Path dir = Files.createDirectories(Paths.get("recordings"));
+                    Path file = dir.resolve("run-" + System.currentTimeMillis() + ".simlog");
+                    recorder = new SimulationRecorder(file, arena, 60); // Checksum every 60 ticks
+                    recordButton.setText("Stop Recording");
+                    System.out.println("Recording to " + file);
+                } catch (IOException ex) {
+                    System.err.println("Failed to start recording: " + ex.getMessage());
+                }
+            } else {
+                recorder.close();
+                recorder = null;
+                recordButton.setText("Record");
+                System.out.println("Recording stopped.");
+            }
+        });
+        restoreButton.setOnAction(e -> {
+            selectedObject = null;
+            arena.submit(a -> {
+                try {
+                    if (AutosaveManager.restore(AUTOSAVE_DIR, a)) {
+                        controlBot = null;
+                        for (AbstractObject obj : a.getObjects()) {
+                            if (obj instanceof ControlBot) {
+                                controlBot = (ControlBot) obj; // Take control of the restored ControlBot
+                            }
+                        }
+                        System.out.println("Autosave restored successfully.");
+                    } else {
+                        System.out.println("No autosave found.");
+                    }
+                } catch (IOException ex) {
+                    System.err.println("Failed to restore autosave: " + ex.getMessage());
+                }
+            });
+            applyEdits(arena);
+            updateInfoPanel(arena);
         });
 
 
@@ -260,29 +345,27 @@ public class Simulation extends Application {
 
 
         canvas.setOnMousePressed(e -> {
-            if (!isRunning) {
-                // Check if a robot or obstacle is clicked
-                selectedObject = arena.getObjects().stream()
-                        .filter(obj -> obj.getX() - obj.getRadius() <= e.getX()
-                                && obj.getX() + obj.getRadius() >= e.getX()
-                                && obj.getY() - obj.getRadius() <= e.getY()
-                                && obj.getY() + obj.getRadius() >= e.getY())
-                        .findFirst()
-                        .orElse(null);
+            if (!isRunning && e.isShiftDown() && selectedObject instanceof Robot) {
+                // Send the selected robot to the clicked point
+                Robot robot = (Robot) selectedObject;
+                double goalX = e.getX();
+                double goalY = e.getY();
+                arena.submit(a -> a.navigateTo(robot, goalX, goalY));
+                applyEdits(arena);
+            } else if (!isRunning) {
+                // Select the topmost robot or obstacle under the cursor
+                AbstractObject previous = selectedObject;
+                selectedObject = arena.pick(e.getX(), e.getY());
 
                 // Update the information panel to show the selected object
                 updateInfoPanel(arena);
 
-                // Refresh the canvas to highlight the selected object
-                gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                for (AbstractObject obj : arena.getObjects()) {
-                    if (obj == selectedObject) {
-                        gc.setStroke(Color.RED);
-                        gc.setLineWidth(2);
-                        gc.strokeOval(obj.getX() - obj.getRadius() - 2, obj.getY() - obj.getRadius() - 2,
-                                obj.getRadius() * 2 + 4, obj.getRadius() * 2 + 4);
-                    }
-                    obj.render(gc);
+                // Redraw only around the old and new selection to move the highlight
+                if (previous != null) {
+                    redrawAround(gc, arena, previous, previous.getX(), previous.getY());
+                }
+                if (selectedObject != null && selectedObject != previous) {
+                    redrawAround(gc, arena, selectedObject, selectedObject.getX(), selectedObject.getY());
                 }
             }
         });
@@ -290,20 +373,14 @@ public class Simulation extends Application {
         canvas.setOnMouseDragged(e -> {
             if (!isRunning && selectedObject != null) {
                 // Drag the selected object
-                selectedObject.x = e.getX();
-                selectedObject.y = e.getY();
+                double oldX = selectedObject.getX();
+                double oldY = selectedObject.getY();
+                arena.requestMove(selectedObject, e.getX(), e.getY());
+                applyEdits(arena);
 
-                // Render the arena manually during drag
-                gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                for (AbstractObject obj : arena.getObjects()) {
-                    if (obj == selectedObject) {
-                        gc.setStroke(Color.RED);
-                        gc.setLineWidth(2);
-                        gc.strokeOval(obj.getX() - obj.getRadius() - 2, obj.getY() - obj.getRadius() - 2,
-                                obj.getRadius() * 2 + 4, obj.getRadius() * 2 + 4);
-                    }
-                    obj.render(gc);
-                }
+                // Redraw only where the object was and where it is now
+                redrawAround(gc, arena, selectedObject, oldX, oldY);
+                redrawAround(gc, arena, selectedObject, selectedObject.getX(), selectedObject.getY());
 
                 // Update the information panel
                 updateInfoPanel(arena);
@@ -313,7 +390,9 @@ public class Simulation extends Application {
         deleteButton.setOnAction(e -> {
             if (selectedObject != null) {
                 // Remove the selected object from the arena
-                arena.getObjects().remove(selectedObject);
+                AbstractObject removed = selectedObject;
+                arena.requestRemove(selectedObject);
+                applyEdits(arena);
 
                 // Clear selection
                 if (selectedObject == controlBot) {
@@ -321,11 +400,8 @@ public class Simulation extends Application {
                 }
                 selectedObject = null;
 
-                // Refresh the canvas
-                gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                for (AbstractObject obj : arena.getObjects()) {
-                    obj.render(gc);
-                }
+                // Redraw where the object was
+                redrawAround(gc, arena, removed, removed.getX(), removed.getY());
 
                 // Update the information panel
                 updateInfoPanel(arena);
@@ -335,40 +411,133 @@ public class Simulation extends Application {
 
         // Key event handling for ControlBot
         Scene scene = new Scene(root, 920, 600); // Increased width for info panel
-        scene.setOnKeyPressed(e -> {
-            if (controlBot != null) {
-                if (e.getCode() == KeyCode.W) isMovingUp = true;
-                if (e.getCode() == KeyCode.S) isMovingDown = true;
-                if (e.getCode() == KeyCode.A) isMovingLeft = true;
-                if (e.getCode() == KeyCode.D) isMovingRight = true;
-            }
-        });
+        scene.setOnKeyPressed(e -> handleKey(e.getCode(), true, arena));
+        scene.setOnKeyReleased(e -> handleKey(e.getCode(), false, arena));
 
-        scene.setOnKeyReleased(e -> {
-            if (controlBot != null) {
-                if (e.getCode() == KeyCode.W) isMovingUp = false;
-                if (e.getCode() == KeyCode.S) isMovingDown = false;
-                if (e.getCode() == KeyCode.A) isMovingLeft = false;
-                if (e.getCode() == KeyCode.D) isMovingRight = false;
+       
+        primaryStage.setOnCloseRequest(e -> {
+            autosave.close(arena); // Final checkpoint on exit
+            if (recorder != null) {
+                recorder.close();
+            }
+            if (trajectory != null) {
+                try {
+                    trajectory.close();
+                } catch (IOException ex) {
+                    System.err.println("Failed to write trajectory: " + ex.getMessage());
+                }
             }
         });
-
-       
         primaryStage.setTitle("Robot Simulation");
         primaryStage.setScene(scene);
         primaryStage.show();
     }
 
     /**
-     * Updates the information panel with info about the arena, including the number of robots and obstacles,
+     * Draws an object, with a red ring around it if it is selected.
+     *
+     * @param gc  The graphics context of the canvas.
+     * @param obj The object to draw.
+     */
+    private void renderObject(GraphicsContext gc, AbstractObject obj) {
+        if (obj == selectedObject) {
+            // Highlight selected object
+            gc.setStroke(Color.RED);
+            gc.setLineWidth(2);
+            gc.strokeOval(obj.getX() - obj.getRadius() - 2, obj.getY() - obj.getRadius() - 2,
+                    obj.getRadius() * 2 + 4, obj.getRadius() * 2 + 4);
+        }
+        obj.render(gc);
+    }
+
+    /**
+     * Redraws the square of the canvas an object covers when centered at the given position.
+     * <p>
+     * Used by the editor instead of redrawing the whole arena. The margin covers the
+     * selection ring and antialiasing.
+     * </p>
+     *
+     * @param gc    The graphics context of the canvas.
+     * @param arena The arena being edited.
+     * @param obj   The object whose area is redrawn.
+     * @param x     The x-coordinate of the object's center.
+     * @param y     The y-coordinate of the object's center.
+     */
+    private void redrawAround(GraphicsContext gc, Arena arena, AbstractObject obj, double x, double y) {
+        double r = Math.max(obj.getRenderRadius(), obj.getRadius() + 3) + 2;
+        redrawRegion(gc, arena, x - r, y - r, x + r, y + r);
+    }
+
+    /**
+     * Clears a rectangle of the canvas and draws only the objects that overlap it.
+     *
+     * @param gc    The graphics context of the canvas.
+     * @param arena The arena being edited.
+     * @param minX  The left edge of the rectangle.
+     * @param minY  The top edge of the rectangle.
+     * @param maxX  The right edge of the rectangle.
+     * @param maxY  The bottom edge of the rectangle.
+     */
+    private void redrawRegion(GraphicsContext gc, Arena arena, double minX, double minY, double maxX, double maxY) {
+        gc.save();
+        gc.beginPath();
+        gc.rect(minX, minY, maxX - minX, maxY - minY);
+        gc.clip();
+        gc.clearRect(minX, minY, maxX - minX, maxY - minY);
+
+        // Draw arena borders
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(3);
+        gc.strokeRect(0, 0, 500, 500);
+
+        regionObjects.clear();
+        arena.queryRegion(minX, minY, maxX, maxY, regionObjects);
+        for (AbstractObject obj : regionObjects) {
+            renderObject(gc, obj);
+        }
+        regionObjects.clear();
+        gc.restore();
+    }
+
+    /**
+     * Passes a W/A/S/D key event to the {@code ControlBot} and records it if a recording is active.
+     *
+     * @param code    The key that was pressed or released.
+     * @param pressed {@code true} if the key was pressed, {@code false} if released.
+     * @param arena   The arena, used for the tick of the event.
+     */
+    private void handleKey(KeyCode code, boolean pressed, Arena arena) {
+        if (controlBot == null) {
+            return;
+        }
+        char key;
+        switch (code) {
+            case W: key = 'W'; break;
+            case A: key = 'A'; break;
+            case S: key = 'S'; break;
+            case D: key = 'D'; break;
+            default: return;
+        }
+        controlBot.setKeyState(key, pressed);
+        if (recorder != null) {
+            recorder.recordKey(arena.getTick(), key, pressed);
+        }
+    }
+
+    /**
+     * Updates the information panel with the performance overlay, the number of objects of each type,
      * and the status of the {@code ControlBot} and any selected object.
+     * <p>
+     * Called by the animation loop whenever the overlay refreshes and directly after editor actions.
+     * All counts are cached by the arena, so this does not depend on the number of objects.
+     * </p>
      *
      * @param arena The {@code Arena} instance containing the robots and obstacles to display information about.
      */
     private void updateInfoPanel(Arena arena) {
-        StringBuilder info = new StringBuilder();
-        info.append("Robots: ").append(arena.getRobotsCount()).append("\n");
-        info.append("Obstacles: ").append(arena.getObstaclesCount()).append("\n");
+        StringBuilder info = infoBuilder;
+        info.setLength(0);
+        overlay.appendTo(info, arena);
         if (controlBot != null) {
             info.append("\nControlBot Position:\n");
             info.append("  X: ").append((int) controlBot.getX()).append("\n");
@@ -391,8 +560,9 @@ public class Simulation extends Application {
      * Saves the current configuration of the arena to a file.
      *
      * @param stage The primary stage, used to show a file chooser dialog.
+     * @param arena The arena to save.
      */
-    private void saveConfiguration(Stage stage) {
+    private void saveConfiguration(Stage stage, Arena arena) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Configuration");
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
@@ -400,14 +570,25 @@ public class Simulation extends Application {
         File file = fileChooser.showSaveDialog(stage);
         if (file != null) {
             try {
+                SimulationEvents.SnapshotEvent event = new SimulationEvents.SnapshotEvent();
+                event.begin();
                 StringBuilder data = new StringBuilder();
-                for (AbstractObject obj : Arena.getInstance().getObjects()) {
+                for (AbstractObject obj : arena.getObjects()) {
                     data.append(obj.getClass().getSimpleName()).append(",")
                             .append(obj.getX()).append(",")
                             .append(obj.getY()).append(",")
-                            .append(obj.getRadius()).append("\n");
+                            .append(obj.getRadius());
+                    if (obj instanceof BlackHole) {
+                        data.append(",").append(((BlackHole) obj).getPull());
+                    }
+                    data.append("\n");
                 }
-                Files.write(file.toPath(), data.toString().getBytes());
+                byte[] bytes = data.toString().getBytes();
+                Files.write(file.toPath(), bytes);
+                event.kind = "configuration";
+                event.objects = arena.getObjects().size();
+                event.bytes = bytes.length;
+                event.commit();
                 System.out.println("Configuration saved successfully.");
             } catch (IOException e) {
                 System.err.println("Failed to save configuration: " + e.getMessage());
@@ -416,13 +597,51 @@ public class Simulation extends Application {
     }
 
     
+    /**
+     * Applies queued arena edits right away while the simulation is stopped.
+     * <p>
+     * Editor actions go through the arena's command queue so they are safe however
+     * the ticks are driven; while running, the next tick applies them.
+     * </p>
+     *
+     * @param arena The edited arena.
+     */
+    private void applyEdits(Arena arena) {
+        if (!isRunning) {
+            arena.applyCommands();
+        }
+    }
+
+    /**
+     * Parses a populate mix such as {@code "WhiskerRobot=100, Obstacle=10"}.
+     *
+     * @param text The comma separated {@code type=count} pairs.
+     * @return The count per type, in the order given.
+     * @throws IllegalArgumentException If a pair is malformed.
+     */
+    private static Map<String, Integer> parseMix(String text) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String pair : text.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            String[] parts = pair.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected type=count but got '" + pair.trim() + "'");
+            }
+            mix.merge(parts[0].trim(), Integer.parseInt(parts[1].trim()), Integer::sum);
+        }
+        return mix;
+    }
+
     /**
      * Loads a configuration file and updates the arena accordingly.
      *
      * @param stage The primary stage, used to show a file chooser dialog.
+     * @param arena The arena to replace with the loaded objects.
      */
 
-    private void loadConfiguration(Stage stage) {
+    private void loadConfiguration(Stage stage, Arena arena) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Load Configuration");
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
@@ -430,7 +649,7 @@ public class Simulation extends Application {
         File file = fileChooser.showOpenDialog(stage);
         if (file != null) {
             try {
-                Arena.getInstance().clearObjects();
+                List<AbstractObject> loaded = new ArrayList<>();
                 List<String> lines = Files.readAllLines(file.toPath());
                 for (String line : lines) {
                     String[] parts = line.split(",");
@@ -441,22 +660,42 @@ public class Simulation extends Application {
 
                     switch (type) {
                         case "BumpSensorRobot":
-                            Arena.getInstance().addObject(new BumpSensorRobot(x, y, radius, 2, 0));
+                            loaded.add(new BumpSensorRobot(x, y, radius, 2, 0));
                             break;
                         case "WhiskerRobot":
-                            Arena.getInstance().addObject(new WhiskerRobot(x, y, radius, 2, 0));
+                            loaded.add(new WhiskerRobot(x, y, radius, 2, 0));
+                            break;
+                        case "SwarmRobot":
+                            loaded.add(new SwarmRobot(x, y, radius, 2, 0));
                             break;
                         case "Obstacle":
-                            Arena.getInstance().addObject(new Obstacle(x, y, radius));
+                            loaded.add(new Obstacle(x, y, radius));
                             break;
                         case "TeleportPad":
-                            Arena.getInstance().addObject(new TeleportPad(x, y, radius));
+                            loaded.add(new TeleportPad(x, y, radius));
                             break;
                         case "BlackHole":
-                            Arena.getInstance().addObject(new BlackHole(x, y, radius));
+                            // Files saved before holes had a pull get the default one
+                            double pull = parts.length > 4 ? Double.parseDouble(parts[4]) : BlackHole.DEFAULT_PULL;
+                            loaded.add(new BlackHole(x, y, radius, pull));
                             break;
                     }
                 }
+                // Replace the arena in one command so a running tick never sees it half loaded
+                arena.submit(a -> {
+                    a.clearObjects();
+                    SimulationEvents.BulkEditEvent event = new SimulationEvents.BulkEditEvent();
+                    event.begin();
+                    for (AbstractObject obj : loaded) {
+                        a.addObject(obj);
+                    }
+                    event.operation = "load";
+                    event.objects = a.getObjects().size();
+                    event.commit();
+                });
+                controlBot = null;
+                selectedObject = null;
+                applyEdits(arena);
                 System.out.println("Configuration loaded successfully.");
             } catch (IOException e) {
                 System.err.println("Failed to load configuration: " + e.getMessage());
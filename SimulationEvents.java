@@ -0,0 +1,144 @@
+package Robot_Sim;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by the simulation.
+ * <p>
+ * The events show up next to the JVM's own GC, JIT and safepoint events, so a
+ * stuttering frame can be traced to the phase or save that caused it. They are
+ * cheap while no recording is running, and the arena reuses one tick and one
+ * phase event for all its ticks, so a tick allocates no events.
+ * {@code robotsim.jfc} enables all of them; combine it with a JDK profile to keep
+ * the JVM events, e.g.
+ * {@code -XX:StartFlightRecording:settings=default,settings=robotsim.jfc,filename=run.jfr}.
+ * The same settings work for GUI and headless ({@link SimulationReplayer}) runs.
+ * </p>
+ */
+public final class SimulationEvents {
+
+    private SimulationEvents() {
+    }
+
+    /**
+     * One call of {@link Arena#updateObjects()}.
+     */
+    @Name("Robot_Sim.Tick")
+    @Label("Simulation Tick")
+    @Category("Robot Simulation")
+    @StackTrace(false)
+    public static class TickEvent extends Event {
+        @Label("Tick")
+        public long tick;
+
+        @Label("Objects")
+        public int objects;
+
+        @Label("Candidate Pairs")
+        @Description("Object pairs tested for collision")
+        public int candidatePairs;
+
+        @Label("Collisions")
+        public int collisions;
+
+        @Label("Teleports")
+        public int teleports;
+
+        @Label("Absorptions")
+        public int absorptions;
+    }
+
+    /**
+     * One phase of a tick, see {@link SimulationMetrics.Phase}.
+     */
+    @Name("Robot_Sim.Phase")
+    @Label("Tick Phase")
+    @Category("Robot Simulation")
+    @StackTrace(false)
+    public static class PhaseEvent extends Event {
+        @Label("Phase")
+        public String phase;
+
+        @Label("Tick")
+        public long tick;
+
+        /**
+         * Starts the event for the first phase of a tick.
+         *
+         * @param phase The phase that starts now.
+         * @param tick  The current tick.
+         */
+        void start(SimulationMetrics.Phase phase, long tick) {
+            this.phase = phase.name();
+            this.tick = tick;
+            begin();
+        }
+
+        /**
+         * Commits the current phase and starts the next one in the same event.
+         *
+         * @param next The phase that starts now.
+         */
+        void next(SimulationMetrics.Phase next) {
+            commit();
+            start(next, tick);
+        }
+    }
+
+    /**
+     * One frame drawn by {@link Simulation}.
+     */
+    @Name("Robot_Sim.Render")
+    @Label("Render Pass")
+    @Category("Robot Simulation")
+    @StackTrace(false)
+    public static class RenderEvent extends Event {
+        @Label("Tick")
+        public long tick;
+
+        @Label("Objects")
+        public int objects;
+    }
+
+    /**
+     * Capturing or writing a snapshot of the arena, by the autosave or the Save button.
+     */
+    @Name("Robot_Sim.Snapshot")
+    @Label("Snapshot Save")
+    @Category("Robot Simulation")
+    @StackTrace(false)
+    public static class SnapshotEvent extends Event {
+        @Label("Kind")
+        @Description("capture, base, delta or configuration")
+        public String kind;
+
+        @Label("Objects")
+        public int objects;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * An editor operation that adds or removes many objects at once.
+     */
+    @Name("Robot_Sim.BulkEdit")
+    @Label("Bulk Edit")
+    @Category("Robot Simulation")
+    public static class BulkEditEvent extends Event {
+        @Label("Operation")
+        @Description("clear, load, restore or populate")
+        public String operation;
+
+        @Label("Objects")
+        @Description("Number of objects removed or added")
+        public int objects;
+    }
+}
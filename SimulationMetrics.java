@@ -0,0 +1,303 @@
+package Robot_Sim;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Instruments the phases of {@link Arena#updateObjects()} and the render pass.
+ * <p>
+ * Keeps cumulative per-phase timers, interaction counters and a histogram of tick
+ * durations. The values can be read through JMX (see {@link #register(String)}) or
+ * printed periodically for headless runs (see {@link #startPeriodicDump}).
+ * </p>
+ * <p>
+ * When disabled, {@link #start()} and {@link #endPhase} return immediately without
+ * reading the clock, so the arena pays one field read per phase.
+ * </p>
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+
+    /**
+     * The timed parts of a frame.
+     */
+    public enum Phase {
+        CONTROL, SENSING, UPDATE, ABSORPTION, TELEPORT, COLLISION, RENDER
+    }
+
+    private volatile boolean enabled;
+    private final long[] phaseNanos = new long[Phase.values().length];		// Cumulative time per phase
+    private final long[] lastPhaseNanos = new long[Phase.values().length];	// Time per phase in the last tick
+    private final LatencyHistogram tickHistogram = new LatencyHistogram();
+    private long ticks = 0;
+    private long candidatePairs = 0;
+    private long collisions = 0;
+    private long teleports = 0;
+    private long absorptions = 0;
+    private ScheduledExecutorService dumper;
+
+    /**
+     * Creates a metrics collector.
+     *
+     * @param enabled {@code true} to start instrumenting right away.
+     */
+    public SimulationMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the start time of a tick or phase.
+     *
+     * @return The current time in nanoseconds, or 0 if metrics are disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds the time since {@code start} to a phase.
+     *
+     * @param phase The phase that just finished.
+     * @param start The value returned by {@link #start()} or the previous {@code endPhase}.
+     * @return The current time, to be used as the start of the next phase.
+     */
+    public long endPhase(Phase phase, long start) {
+        if (!enabled || start == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - start;
+        lastPhaseNanos[phase.ordinal()] = now - start;
+        return now;
+    }
+
+    /**
+     * Records the end of a tick together with its interaction counts.
+     *
+     * @param tickStart      The value returned by {@link #start()} at the beginning of the tick.
+     * @param candidatePairs The number of pairs tested for collision.
+     * @param collisions     The number of collisions handled.
+     * @param teleports      The number of teleported robots.
+     * @param absorptions    The number of absorbed robots.
+     */
+    public void endTick(long tickStart, int candidatePairs, int collisions, int teleports, int absorptions) {
+        if (!enabled || tickStart == 0) {
+            return;
+        }
+        tickHistogram.record(System.nanoTime() - tickStart);
+        ticks++;
+        this.candidatePairs += candidatePairs;
+        this.collisions += collisions;
+        this.teleports += teleports;
+        this.absorptions += absorptions;
+    }
+
+    /**
+     * Returns the duration of a phase in the most recent tick.
+     *
+     * @param phase The phase.
+     * @return The duration in nanoseconds.
+     */
+    public long getLastPhaseNanos(Phase phase) {
+        return lastPhaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Returns the cumulative duration of a phase.
+     *
+     * @param phase The phase.
+     * @return The duration in nanoseconds.
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Returns the histogram of tick durations in nanoseconds.
+     *
+     * @return The tick duration histogram.
+     */
+    public LatencyHistogram getTickHistogram() {
+        return tickHistogram;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public double getControlMillis() {
+        return phaseNanos[Phase.CONTROL.ordinal()] / 1e6;
+    }
+
+    @Override
+    public double getSensingMillis() {
+        return phaseNanos[Phase.SENSING.ordinal()] / 1e6;
+    }
+
+    @Override
+    public double getUpdateMillis() {
+        return phaseNanos[Phase.UPDATE.ordinal()] / 1e6;
+    }
+
+    @Override
+    public double getAbsorptionMillis() {
+        return phaseNanos[Phase.ABSORPTION.ordinal()] / 1e6;
+    }
+
+    @Override
+    public double getTeleportMillis() {
+        return phaseNanos[Phase.TELEPORT.ordinal()] / 1e6;
+    }
+
+    @Override
+    public double getCollisionMillis() {
+        return phaseNanos[Phase.COLLISION.ordinal()] / 1e6;
+    }
+
+    @Override
+    public double getRenderMillis() {
+        return phaseNanos[Phase.RENDER.ordinal()] / 1e6;
+    }
+
+    @Override
+    public long getCandidatePairs() {
+        return candidatePairs;
+    }
+
+    @Override
+    public long getCollisions() {
+        return collisions;
+    }
+
+    @Override
+    public long getTeleports() {
+        return teleports;
+    }
+
+    @Override
+    public long getAbsorptions() {
+        return absorptions;
+    }
+
+    @Override
+    public double getTickMeanMicros() {
+        return tickHistogram.getMean() / 1e3;
+    }
+
+    @Override
+    public double getTickP50Micros() {
+        return tickHistogram.getValueAtPercentile(50) / 1e3;
+    }
+
+    @Override
+    public double getTickP99Micros() {
+        return tickHistogram.getValueAtPercentile(99) / 1e3;
+    }
+
+    @Override
+    public double getTickP999Micros() {
+        return tickHistogram.getValueAtPercentile(99.9) / 1e3;
+    }
+
+    @Override
+    public double getTickMaxMicros() {
+        return tickHistogram.getMax() / 1e3;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(phaseNanos, 0);
+        Arrays.fill(lastPhaseNanos, 0);
+        tickHistogram.reset();
+        ticks = 0;
+        candidatePairs = 0;
+        collisions = 0;
+        teleports = 0;
+        absorptions = 0;
+    }
+
+    /**
+     * Publishes these metrics on the platform MBean server.
+     *
+     * @param name The value of the {@code name} key, e.g. {@code "gui"}.
+     */
+    public void register(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("Robot_Sim:type=SimulationMetrics,name=" + name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("Failed to register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints a one-line summary at a fixed rate from a daemon thread.
+     *
+     * @param periodSeconds The number of seconds between two summaries.
+     * @param out           The stream to print to.
+     */
+    public synchronized void startPeriodicDump(long periodSeconds, PrintStream out) {
+        if (dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.println(summary()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic summary.
+     */
+    public synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdown();
+            dumper = null;
+        }
+    }
+
+    /**
+     * Returns a one-line summary of all metrics.
+     *
+     * @return The summary.
+     */
+    public String summary() {
+        StringBuilder line = new StringBuilder();
+        line.append("ticks=").append(ticks);
+        line.append(String.format(" tick[mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus]",
+                getTickMeanMicros(), getTickP50Micros(), getTickP99Micros(), getTickMaxMicros()));
+        line.append(" phases[");
+        for (Phase phase : Phase.values()) {
+            line.append(String.format("%s=%.1fms ", phase.name().toLowerCase(), phaseNanos[phase.ordinal()] / 1e6));
+        }
+        line.setLength(line.length() - 1);
+        line.append("] pairs=").append(candidatePairs)
+                .append(" collisions=").append(collisions)
+                .append(" teleports=").append(teleports)
+                .append(" absorptions=").append(absorptions);
+        return line.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package Robot_Sim;
+
+/**
+ * JMX management interface of {@link SimulationMetrics}.
+ * <p>
+ * Durations are cumulative since the last reset unless stated otherwise.
+ * </p>
+ */
+public interface SimulationMetricsMBean {
+
+    /** @return {@code true} if ticks are being instrumented. */
+    boolean isEnabled();
+
+    /** @param enabled {@code true} to start instrumenting ticks, {@code false} to stop. */
+    void setEnabled(boolean enabled);
+
+    /** @return The number of instrumented ticks. */
+    long getTicks();
+
+    /** @return Time spent running robot controllers, in milliseconds. */
+    double getControlMillis();
+
+    /** @return Time spent in the sensing phase, in milliseconds. */
+    double getSensingMillis();
+
+    /** @return Time spent moving objects, in milliseconds. */
+    double getUpdateMillis();
+
+    /** @return Time spent checking black hole absorption, in milliseconds. */
+    double getAbsorptionMillis();
+
+    /** @return Time spent checking teleport pads, in milliseconds. */
+    double getTeleportMillis();
+
+    /** @return Time spent in collision detection and response, in milliseconds. */
+    double getCollisionMillis();
+
+    /** @return Time spent rendering frames, in milliseconds. */
+    double getRenderMillis();
+
+    /** @return The number of object pairs tested for collision. */
+    long getCandidatePairs();
+
+    /** @return The number of collisions handled. */
+    long getCollisions();
+
+    /** @return The number of robots teleported. */
+    long getTeleports();
+
+    /** @return The number of robots absorbed by black holes. */
+    long getAbsorptions();
+
+    /** @return The mean tick duration in microseconds. */
+    double getTickMeanMicros();
+
+    /** @return The median tick duration in microseconds. */
+    double getTickP50Micros();
+
+    /** @return The 99th percentile tick duration in microseconds. */
+    double getTickP99Micros();
+
+    /** @return The 99.9th percentile tick duration in microseconds. */
+    double getTickP999Micros();
+
+    /** @return The longest tick in microseconds. */
+    double getTickMaxMicros();
+
+    /** Clears all timers, counters and the tick histogram. */
+    void reset();
+}
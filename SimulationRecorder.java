@@ -0,0 +1,333 @@
+package Robot_Sim;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Records a simulation run into a compact append-only log so it can be replayed.
+ * <p>
+ * When recording starts the arena is reseeded with a fresh seed and its current
+ * objects are written as the initial state. After that every editor action and
+ * every ControlBot key event is logged with the tick it happened at, and a
+ * checksum of the arena is logged every few ticks so {@link SimulationReplayer}
+ * can detect divergence.
+ * </p>
+ * <p>
+ * Log layout: a header ({@code MAGIC}, {@code VERSION}, seed, next object id,
+ * checksum interval)
+ * followed by records of one type byte, the tick as a variable-length delta to the
+ * previous record, and a type-specific payload. An added object is stored with its
+ * id, type, position, radius, speed and direction, and black holes also with their
+ * pull. Robots that are navigating when recording starts get a navigate record
+ * right after the initial objects, so the replay steers them the same way.
+ * </p>
+ */
+public final class SimulationRecorder implements AutoCloseable {
+    static final int MAGIC = 0x524F424F; // "ROBO"
+    static final int VERSION = 7;
+
+    // Record types
+    static final byte KEY = 1;
+    static final byte SPAWN = 2;
+    static final byte ADD = 3;
+    static final byte REMOVE = 4;
+    static final byte MOVE = 5;
+    static final byte CLEAR = 6;
+    static final byte CHECKSUM = 7;
+    static final byte END = 8;
+    static final byte LINK = 9;
+    static final byte POPULATE = 10;
+    static final byte NAVIGATE = 11;
+
+    private final Arena arena;
+    private final DataOutputStream out;
+    private final int checksumInterval;	// Number of ticks between two checksums
+    private final long startTick;		// Arena tick at which recording started
+    private long lastTick = 0;			// Relative tick of the last record
+    private boolean failed = false;		// Set when the log can no longer be written
+
+    /**
+     * Starts recording the given arena into a new log file.
+     *
+     * @param file             The log file to create.
+     * @param arena            The arena to record.
+     * @param checksumInterval The number of ticks between two checksum records.
+     * @throws IOException If the log file cannot be created.
+     */
+    public SimulationRecorder(Path file, Arena arena, int checksumInterval) throws IOException {
+        this.arena = arena;
+        this.checksumInterval = Math.max(1, checksumInterval);
+        this.startTick = arena.getTick();
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)));
+
+        // A fresh seed makes the random sequence from here on reproducible
+        long seed = new Random().nextLong();
+        arena.setSeed(seed);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(seed);
+        out.writeInt(arena.getNextId());
+        out.writeInt(this.checksumInterval);
+
+        // Initial state, so the replay does not depend on the arena's defaults
+        recordClear(startTick);
+        for (AbstractObject obj : arena.getObjects()) {
+            recordAdd(startTick, obj);
+        }
+        for (AbstractObject obj : arena.getObjects()) {
+            if (obj instanceof TeleportPad && ((TeleportPad) obj).getExitId() != 0) {
+                recordLink(startTick, obj.getId(), ((TeleportPad) obj).getExitId());
+            }
+        }
+        for (AbstractObject obj : arena.getObjects()) {
+            if (obj instanceof Robot && ((Robot) obj).getController() instanceof GoalController) {
+                GoalController goal = (GoalController) ((Robot) obj).getController();
+                recordNavigate(startTick, obj.getId(), goal.getGoalX(), goal.getGoalY(),
+                        goal.getCruiseSpeed((Robot) obj));
+            }
+        }
+        out.flush();
+        arena.setRecorder(this);
+    }
+
+    /**
+     * Records a ControlBot key being pressed or released.
+     *
+     * @param tick    The arena tick of the event.
+     * @param key     The movement key ({@code 'W'}, {@code 'A'}, {@code 'S'} or {@code 'D'}).
+     * @param pressed {@code true} if the key was pressed, {@code false} if released.
+     */
+    public void recordKey(long tick, char key, boolean pressed) {
+        try {
+            begin(KEY, tick);
+            out.writeChar(key);
+            out.writeBoolean(pressed);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records an object created through {@link Arena#spawn(String)}.
+     *
+     * @param tick The arena tick of the event.
+     * @param type The spawned type.
+     */
+    public void recordSpawn(long tick, String type) {
+        try {
+            begin(SPAWN, tick);
+            out.writeUTF(type);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records objects created through {@link Arena#populate(Map)}.
+     *
+     * @param tick The arena tick of the event.
+     * @param mix  The number of objects per type, in the order they were given.
+     */
+    public void recordPopulate(long tick, Map<String, Integer> mix) {
+        try {
+            begin(POPULATE, tick);
+            writeVarLong(mix.size());
+            for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeVarLong(Math.max(0, entry.getValue()));
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records an object added with an explicit state, e.g. when a file is loaded.
+     *
+     * @param tick The arena tick of the event.
+     * @param obj  The added object.
+     */
+    public void recordAdd(long tick, AbstractObject obj) {
+        try {
+            begin(ADD, tick);
+            writeVarLong(obj.getId());
+            out.writeUTF(obj.getClass().getSimpleName());
+            out.writeDouble(obj.getX());
+            out.writeDouble(obj.getY());
+            out.writeDouble(obj.getRadius());
+            if (obj instanceof Robot) {
+                out.writeDouble(((Robot) obj).getSpeed());
+                out.writeDouble(((Robot) obj).getDirection());
+            } else {
+                out.writeDouble(0);
+                out.writeDouble(0);
+            }
+            if (obj instanceof BlackHole) {
+                out.writeDouble(((BlackHole) obj).getPull());
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records an object being removed in the editor; absorptions happen again in the replay and are not recorded.
+     *
+     * @param tick The arena tick of the event.
+     * @param id   The id of the removed object.
+     */
+    public void recordRemove(long tick, int id) {
+        try {
+            begin(REMOVE, tick);
+            writeVarLong(id);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records an object being moved in the editor.
+     *
+     * @param tick The arena tick of the event.
+     * @param id   The id of the moved object.
+     * @param x    The new x-coordinate.
+     * @param y    The new y-coordinate.
+     */
+    public void recordMove(long tick, int id, double x, double y) {
+        try {
+            begin(MOVE, tick);
+            writeVarLong(id);
+            out.writeDouble(x);
+            out.writeDouble(y);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records a robot being sent to a goal with {@link Arena#navigateTo}.
+     *
+     * @param tick   The arena tick of the event.
+     * @param id     The id of the robot.
+     * @param x      The x-coordinate of the goal.
+     * @param y      The y-coordinate of the goal.
+     * @param cruise The speed the robot drives at while it is outside the goal radius.
+     */
+    public void recordNavigate(long tick, int id, double x, double y, double cruise) {
+        try {
+            begin(NAVIGATE, tick);
+            writeVarLong(id);
+            out.writeDouble(x);
+            out.writeDouble(y);
+            out.writeDouble(cruise);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records a teleport pad being linked to an exit pad.
+     *
+     * @param tick   The arena tick of the event.
+     * @param id     The id of the pad robots enter.
+     * @param exitId The id of the exit pad, 0 if the link was removed.
+     */
+    public void recordLink(long tick, int id, int exitId) {
+        try {
+            begin(LINK, tick);
+            writeVarLong(id);
+            writeVarLong(exitId);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the arena being cleared.
+     *
+     * @param tick The arena tick of the event.
+     */
+    public void recordClear(long tick) {
+        try {
+            begin(CLEAR, tick);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Must be called once a tick has fully completed, including ControlBot input.
+     * <p>
+     * Writes a checksum record every {@code checksumInterval} ticks and flushes the
+     * log, so a crash loses at most one interval.
+     * </p>
+     */
+    public void afterTick() {
+        long tick = arena.getTick();
+        if ((tick - startTick) % checksumInterval == 0) {
+            try {
+                begin(CHECKSUM, tick);
+                out.writeLong(arena.checksum());
+                out.flush();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the end marker and stops recording.
+     */
+    @Override
+    public void close() {
+        arena.setRecorder(null);
+        try {
+            begin(END, arena.getTick());
+            out.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes the type byte and tick delta that start every record.
+     */
+    private void begin(byte type, long tick) throws IOException {
+        if (failed) {
+            throw new IOException("recording was aborted");
+        }
+        long relative = tick - startTick;
+        out.writeByte(type);
+        writeVarLong(relative - lastTick);
+        lastTick = relative;
+    }
+
+    /**
+     * Writes a non-negative number using 7 bits per byte.
+     */
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Stops recording after a write error.
+     */
+    private void fail(IOException e) {
+        if (!failed) {
+            failed = true;
+            arena.setRecorder(null);
+            System.err.println("Failed to write recording: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package Robot_Sim;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Re-runs a log written by {@link SimulationRecorder} headlessly at full speed.
+ * <p>
+ * Every recorded input and editor action is applied at the tick it was recorded at.
+ * Whenever the log contains a checksum, the checksum of the replayed arena is
+ * compared with it and the replay stops at the first divergence.
+ * </p>
+ */
+public class SimulationReplayer {
+    private final Arena arena;
+    private ControlBot controlBot;		// The ControlBot receiving key input, as in Simulation
+    private long checksumsVerified = 0;
+    private long divergedAt = -1;		// Tick of the first checksum mismatch, -1 if none
+
+    private SimulationReplayer(long seed, int nextId) {
+        arena = new Arena(seed);
+        arena.setLogging(false); // Headless, absorptions and teleports would only flood the output
+        arena.setSeed(seed); // The constructor used the generator for default objects
+        arena.clearObjects();
+        arena.setNextId(nextId); // Spawned objects get the same ids as in the recording
+        if (arena.getMetrics().isEnabled()) {
+            // Headless runs have no JMX console attached, so print the metrics instead
+            arena.getMetrics().startPeriodicDump(Long.getLong("robotsim.metrics.dump", 10), System.out);
+        }
+    }
+
+    /**
+     * Replays a recorded run.
+     *
+     * @param file The log file written by {@code SimulationRecorder}.
+     * @return The replayer, holding the final arena and the verification result.
+     * @throws IOException If the log cannot be read or is not a recording.
+     */
+    public static SimulationReplayer replay(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SimulationRecorder.MAGIC || in.readInt() != SimulationRecorder.VERSION) {
+                throw new IOException("Not a simulation recording: " + file);
+            }
+            long seed = in.readLong();
+            SimulationReplayer replayer = new SimulationReplayer(seed, in.readInt());
+            in.readInt(); // Checksum interval, only informative
+            try {
+                replayer.run(in);
+            } finally {
+                replayer.arena.getMetrics().stopPeriodicDump();
+            }
+            return replayer;
+        }
+    }
+
+    /**
+     * Reads records until the end marker or the first divergence.
+     */
+    private void run(DataInputStream in) throws IOException {
+        long tick = 0;
+        while (true) {
+            byte type;
+            try {
+                type = in.readByte();
+            } catch (EOFException e) {
+                return; // Recording was not closed cleanly; replay what is there
+            }
+            tick += readVarLong(in);
+            while (arena.getTick() < tick) {
+                step();
+            }
+
+            switch (type) {
+                case SimulationRecorder.KEY:
+                    char key = in.readChar();
+                    boolean pressed = in.readBoolean();
+                    if (controlBot != null) {
+                        controlBot.setKeyState(key, pressed);
+                    }
+                    break;
+                case SimulationRecorder.SPAWN:
+                    AbstractObject spawned = arena.spawn(in.readUTF());
+                    if (spawned instanceof ControlBot) {
+                        controlBot = (ControlBot) spawned;
+                    }
+                    break;
+                case SimulationRecorder.POPULATE:
+                    int types = (int) readVarLong(in);
+                    Map<String, Integer> mix = new LinkedHashMap<>();
+                    for (int i = 0; i < types; i++) {
+                        mix.put(in.readUTF(), (int) readVarLong(in));
+                    }
+                    arena.populate(mix);
+                    break;
+                case SimulationRecorder.ADD:
+                    int id = (int) readVarLong(in);
+                    AbstractObject added = arena.createObject(in.readUTF(), in.readDouble(), in.readDouble(),
+                            in.readDouble(), in.readDouble(), in.readDouble());
+                    if (added instanceof BlackHole) {
+                        ((BlackHole) added).setPull(in.readDouble());
+                    }
+                    if (added != null) {
+                        added.id = id; // Keep the recorded id
+                        arena.addObject(added);
+                        if (added instanceof ControlBot) {
+                            controlBot = (ControlBot) added;
+                        }
+                    }
+                    break;
+                case SimulationRecorder.REMOVE:
+                    AbstractObject removed = arena.getObject((int) readVarLong(in));
+                    if (removed != null) {
+                        arena.removeObject(removed);
+                    }
+                    if (removed == controlBot) {
+                        controlBot = null;
+                    }
+                    break;
+                case SimulationRecorder.MOVE:
+                    AbstractObject moved = arena.getObject((int) readVarLong(in));
+                    double x = in.readDouble();
+                    double y = in.readDouble();
+                    if (moved != null) {
+                        arena.moveObject(moved, x, y);
+                    }
+                    break;
+                case SimulationRecorder.NAVIGATE:
+                    AbstractObject navigated = arena.getObject((int) readVarLong(in));
+                    double goalX = in.readDouble();
+                    double goalY = in.readDouble();
+                    double cruise = in.readDouble();
+                    if (navigated instanceof Robot) {
+                        arena.navigateTo((Robot) navigated, goalX, goalY, cruise);
+                    }
+                    break;
+                case SimulationRecorder.LINK:
+                    AbstractObject from = arena.getObject((int) readVarLong(in));
+                    AbstractObject to = arena.getObject((int) readVarLong(in));
+                    if (from instanceof TeleportPad) {
+                        arena.linkPads((TeleportPad) from, to instanceof TeleportPad ? (TeleportPad) to : null);
+                    }
+                    break;
+                case SimulationRecorder.CLEAR:
+                    arena.clearObjects();
+                    controlBot = null;
+                    break;
+                case SimulationRecorder.CHECKSUM:
+                    long expected = in.readLong();
+                    if (arena.checksum() != expected) {
+                        divergedAt = tick;
+                        return;
+                    }
+                    checksumsVerified++;
+                    break;
+                case SimulationRecorder.END:
+                    return;
+                default:
+                    throw new IOException("Unknown record type " + type + " at tick " + tick);
+            }
+        }
+    }
+
+    /**
+     * Performs one tick exactly as the animation loop in {@code Simulation} does.
+     */
+    private void step() {
+        arena.updateObjects();
+        if (controlBot != null) {
+            controlBot.applyInput();
+        }
+    }
+
+    /**
+     * Reads a number written with 7 bits per byte.
+     */
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Returns the arena in its final replayed state.
+     *
+     * @return The replayed arena.
+     */
+    public Arena getArena() {
+        return arena;
+    }
+
+    /**
+     * Returns the number of checksums that matched the recording.
+     *
+     * @return The number of verified checksums.
+     */
+    public long getChecksumsVerified() {
+        return checksumsVerified;
+    }
+
+    /**
+     * Returns the tick at which the replay diverged from the recording.
+     *
+     * @return The tick of the first checksum mismatch, or -1 if the replay matched.
+     */
+    public long getDivergedAt() {
+        return divergedAt;
+    }
+
+    /**
+     * Replays the recording given as the first argument and prints the result.
+     *
+     * @param args The path of the recording.
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: SimulationReplayer <recording>");
+            System.exit(2);
+        }
+        try {
+            long start = System.nanoTime();
+            SimulationReplayer replayer = replay(Paths.get(args[0]));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Replayed %d ticks in %.2f s, %d checksums verified%n",
+                    replayer.getArena().getTick(), seconds, replayer.getChecksumsVerified());
+            if (replayer.getArena().getMetrics().isEnabled()) {
+                System.out.println(replayer.getArena().getMetrics().summary());
+            }
+            if (replayer.getDivergedAt() >= 0) {
+                System.out.println("Replay diverged at tick " + replayer.getDivergedAt());
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to replay: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package Robot_Sim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uniform grid of objects for point and rectangle queries.
+ * <p>
+ * Each object is listed in every cell its render bounds overlap (see
+ * {@link AbstractObject#getRenderRadius()}), so a point query only looks at one
+ * cell. Objects outside the covered area are kept in the border cells. Adding,
+ * removing and moving an object only touch the cells it covers, so the index
+ * follows editor changes incrementally.
+ * </p>
+ */
+public class SpatialGrid {
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final List<ArrayList<AbstractObject>> cells;
+
+    /**
+     * Creates an empty grid.
+     *
+     * @param width    The width of the covered area.
+     * @param height   The height of the covered area.
+     * @param cellSize The size of a cell.
+     */
+    public SpatialGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new ArrayList<>(columns * rows);
+        for (int c = 0; c < columns * rows; c++) {
+            cells.add(new ArrayList<>(4));
+        }
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    /**
+     * Adds an object at its current position.
+     *
+     * @param obj The object to add.
+     */
+    public void add(AbstractObject obj) {
+        double r = obj.getRenderRadius();
+        for (int row = row(obj.y - r); row <= row(obj.y + r); row++) {
+            for (int column = column(obj.x - r); column <= column(obj.x + r); column++) {
+                cells.get(row * columns + column).add(obj);
+            }
+        }
+    }
+
+    /**
+     * Removes an object that was added at the given position.
+     *
+     * @param obj The object to remove.
+     * @param x   The x-coordinate it was added or last moved at.
+     * @param y   The y-coordinate it was added or last moved at.
+     */
+    public void remove(AbstractObject obj, double x, double y) {
+        double r = obj.getRenderRadius();
+        for (int row = row(y - r); row <= row(y + r); row++) {
+            for (int column = column(x - r); column <= column(x + r); column++) {
+                cells.get(row * columns + column).remove(obj);
+            }
+        }
+    }
+
+    /**
+     * Moves an object from an old position to its current one.
+     *
+     * @param obj  The object, already at its new position.
+     * @param oldX The x-coordinate it was indexed at.
+     * @param oldY The y-coordinate it was indexed at.
+     */
+    public void move(AbstractObject obj, double oldX, double oldY) {
+        remove(obj, oldX, oldY);
+        add(obj);
+    }
+
+    /**
+     * Returns the objects whose render bounds may contain a point.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return The objects of the cell containing the point; do not modify.
+     */
+    public List<AbstractObject> at(double x, double y) {
+        return cells.get(row(y) * columns + column(x));
+    }
+
+    /**
+     * Collects the objects whose render bounds may overlap a rectangle, each once.
+     *
+     * @param minX The left edge of the rectangle.
+     * @param minY The top edge of the rectangle.
+     * @param maxX The right edge of the rectangle.
+     * @param maxY The bottom edge of the rectangle.
+     * @param out  Receives the objects in no particular order.
+     */
+    public void query(double minX, double minY, double maxX, double maxY, List<AbstractObject> out) {
+        int minColumn = column(minX);
+        int minRow = row(minY);
+        for (int row = minRow; row <= row(maxY); row++) {
+            for (int column = minColumn; column <= column(maxX); column++) {
+                for (AbstractObject obj : cells.get(row * columns + column)) {
+                    // Report an object only in the first cell it shares with the rectangle
+                    double r = obj.getRenderRadius();
+                    if (Math.max(column(obj.x - r), minColumn) == column && Math.max(row(obj.y - r), minRow) == row) {
+                        out.add(obj);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all objects.
+     */
+    public void clear() {
+        for (ArrayList<AbstractObject> cell : cells) {
+            cell.clear();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package Robot_Sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Finds non-overlapping spots for many new objects at once.
+ * <p>
+ * The arena is divided into slots about one object wide, which are visited in a
+ * shuffled order; each slot offers a few jittered candidate positions. A candidate
+ * is accepted only if the object fits inside the walls and keeps a small gap to
+ * every object already in the arena or placed before it, black holes included.
+ * The overlap test only looks at the objects near the candidate, found through a
+ * {@link SpatialGrid}, so placing N objects costs about O(N).
+ * </p>
+ * <p>
+ * The slots are sized anew whenever the radius changes, so callers should place
+ * the largest objects first and let the small ones fill the gaps. When every slot
+ * has been visited the slots are shuffled again for another pass; after
+ * {@code PASSES} passes the arena is considered full for that size.
+ * </p>
+ */
+class SpawnPlacer {
+    private static final double GAP = 1;			// Smallest distance between the edges of two placed objects
+    private static final int TRIES_PER_SLOT = 4;	// Jittered candidates tried in a slot before moving on
+    private static final int PASSES = 4;			// Shuffled walks over all slots before giving up
+
+    private final double width;
+    private final double height;
+    private final SpatialGrid grid;
+    private final List<AbstractObject> nearby = new ArrayList<>();
+    private double slotRadius = -1;	// Radius the slots are currently sized for
+    private double slotSize;
+    private int columns;
+    private int[] slots = new int[0];
+    private int next = 0;		// Next slot of the current pass
+    private int passes = 0;
+
+    /**
+     * Creates a placer that avoids the given objects.
+     *
+     * @param objects The objects already in the arena.
+     * @param width   The width of the arena.
+     * @param height  The height of the arena.
+     */
+    SpawnPlacer(List<AbstractObject> objects, double width, double height) {
+        this.width = width;
+        this.height = height;
+        this.grid = new SpatialGrid(width, height, 25);
+        for (AbstractObject obj : objects) {
+            grid.add(obj);
+        }
+    }
+
+    /**
+     * Sizes the slots for objects of the given radius and starts a new walk over them.
+     */
+    private void prepare(double radius, Random random) {
+        slotRadius = radius;
+        slotSize = 2 * radius + GAP;
+        columns = Math.max(1, (int) (width / slotSize));
+        slots = new int[columns * Math.max(1, (int) (height / slotSize))];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i;
+        }
+        passes = 0;
+        shuffle(random);
+    }
+
+    /**
+     * Moves an object to a free spot and reserves it.
+     *
+     * @param obj    The object to place.
+     * @param random The arena's random generator.
+     * @return {@code false} if no free spot was found, in which case the object is not moved.
+     */
+    boolean place(AbstractObject obj, Random random) {
+        double r = obj.radius;
+        if (2 * r > width || 2 * r > height) {
+            return false;
+        }
+        if (r != slotRadius) {
+            prepare(r, random); // Smaller objects get smaller slots and a fresh set of passes
+        }
+        while (passes < PASSES) {
+            for (; next < slots.length; next++) {
+                double left = (slots[next] % columns) * slotSize;
+                double top = (slots[next] / columns) * slotSize;
+                for (int t = 0; t < TRIES_PER_SLOT; t++) {
+                    double x = clamp(left + random.nextDouble() * slotSize, r, width - r);
+                    double y = clamp(top + random.nextDouble() * slotSize, r, height - r);
+                    if (isFree(x, y, r)) {
+                        obj.x = x;
+                        obj.y = y;
+                        grid.add(obj);
+                        next++;
+                        return true;
+                    }
+                }
+            }
+            passes++;
+            shuffle(random);
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a circle keeps the gap to every known object.
+     */
+    private boolean isFree(double x, double y, double r) {
+        nearby.clear();
+        grid.query(x - r - GAP, y - r - GAP, x + r + GAP, y + r + GAP, nearby);
+        for (AbstractObject other : nearby) {
+            double dx = other.x - x;
+            double dy = other.y - y;
+            double reach = other.radius + r + GAP;
+            if (dx * dx + dy * dy < reach * reach) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void shuffle(Random random) {
+        for (int i = slots.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int slot = slots[i];
+            slots[i] = slots[j];
+            slots[j] = slot;
+        }
+        next = 0;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
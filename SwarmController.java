@@ -0,0 +1,99 @@
+package Robot_Sim;
+
+/**
+ * Steers robots as a flock from their nearest neighbours.
+ * <p>
+ * Every robot looks at its {@code k} nearest robots and blends three urges with its
+ * current heading: separation (move away from neighbours that are too close),
+ * alignment (head where the neighbours head) and cohesion (move towards their
+ * centre). An obstacle within sensor range overrides the flock and turns the robot
+ * away from it. The heading changes by at most {@code maxTurn} degrees per tick, so
+ * flocks turn smoothly.
+ * </p>
+ */
+public class SwarmController implements RobotController {
+    /** The default controller of {@code SwarmRobot}. */
+    public static final SwarmController DEFAULT = new SwarmController(7, 12, 1.5, 1.0, 0.6, 8);
+
+    private final int neighbours;			// Nearest robots taken into account
+    private final double separation;		// Distance between centres below which robots push apart
+    private final double separationWeight;
+    private final double alignmentWeight;
+    private final double cohesionWeight;
+    private final double maxTurn;			// Degrees turned per tick at most
+
+    /**
+     * Creates a swarm controller.
+     *
+     * @param neighbours       The number of nearest robots each robot reads.
+     * @param separation       The distance between centres below which robots push each other away.
+     * @param separationWeight How strongly robots keep their distance.
+     * @param alignmentWeight  How strongly robots take over the heading of their neighbours.
+     * @param cohesionWeight   How strongly robots move towards the centre of their neighbours.
+     * @param maxTurn          The largest change of heading per tick, in degrees.
+     */
+    public SwarmController(int neighbours, double separation, double separationWeight,
+                           double alignmentWeight, double cohesionWeight, double maxTurn) {
+        this.neighbours = neighbours;
+        this.separation = separation;
+        this.separationWeight = separationWeight;
+        this.alignmentWeight = alignmentWeight;
+        this.cohesionWeight = cohesionWeight;
+        this.maxTurn = maxTurn;
+    }
+
+    @Override
+    public void control(SensorBatch sensors, CommandBatch commands, int from, int to) {
+        int k = sensors.neighbours;
+        for (int i = from; i < to; i++) {
+            double direction = commands.direction[i];
+            double desired;
+            if (sensors.contacts[i] > 0) {
+                desired = sensors.nearestBearing[i] + 180; // Obstacle ahead, turn away from it
+            } else {
+                double headingX = Math.cos(Math.toRadians(direction));
+                double headingY = Math.sin(Math.toRadians(direction));
+                double awayX = 0, awayY = 0;	// Separation
+                double alignX = 0, alignY = 0;	// Alignment
+                double centreX = 0, centreY = 0;	// Cohesion
+                int n = sensors.neighbourCount[i];
+                for (int j = 0; j < n; j++) {
+                    double dx = sensors.neighbourDx[i * k + j];
+                    double dy = sensors.neighbourDy[i * k + j];
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 < separation * separation && d2 > 0) {
+                        awayX -= dx / d2 * separation; // Stronger the closer the neighbour
+                        awayY -= dy / d2 * separation;
+                    }
+                    alignX += sensors.neighbourCos[i * k + j];
+                    alignY += sensors.neighbourSin[i * k + j];
+                    centreX += dx;
+                    centreY += dy;
+                }
+                if (n > 0) {
+                    double centreLength = Math.sqrt(centreX * centreX + centreY * centreY);
+                    if (centreLength > 0) {
+                        centreX /= centreLength;
+                        centreY /= centreLength;
+                    }
+                    headingX += separationWeight * awayX + alignmentWeight * alignX / n + cohesionWeight * centreX;
+                    headingY += separationWeight * awayY + alignmentWeight * alignY / n + cohesionWeight * centreY;
+                }
+                desired = headingX == 0 && headingY == 0 ? direction : Math.toDegrees(Math.atan2(headingY, headingX));
+            }
+            double turn = ((desired - direction) % 360 + 540) % 360 - 180; // Shortest way round, -180 to 180
+            turn = Math.max(-maxTurn, Math.min(maxTurn, turn));
+            commands.direction[i] = (direction + turn + 360) % 360;
+        }
+    }
+
+    @Override
+    public double getSensorRange() {
+        return 10;
+    }
+
+    @Override
+    public int getNeighbourCount() {
+        return neighbours;
+    }
+}
@@ -0,0 +1,63 @@
+package Robot_Sim;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Represents a small robot that moves as part of a flock.
+ * <p>
+ * Swarm robots are steered by their controller ({@link SwarmController#DEFAULT}
+ * by default), which reads the robot's nearest neighbours from the arena's
+ * neighbour index, so thousands of them can flock without every robot looking at
+ * every other one. They are drawn as a small dot with a line showing the heading.
+ * </p>
+ */
+public class SwarmRobot extends Robot {
+
+    /**
+     * Constructs a {@code SwarmRobot} with specified position, radius, speed, and direction.
+     *
+     * @param x         The x-coordinate of the robot's initial position.
+     * @param y         The y-coordinate of the robot's initial position.
+     * @param radius    The radius of the robot.
+     * @param speed     The speed of the robot.
+     * @param direction The initial direction of the robot in degrees.
+     */
+    public SwarmRobot(double x, double y, double radius, double speed, double direction) {
+        super(x, y, radius, speed, direction);
+    }
+
+    /**
+     * Does nothing, the neighbours are read by the robot's controller in the arena's control phase.
+     *
+     * @param arena The arena containing all objects.
+     */
+    @Override
+    public void sense(Arena arena) {
+    }
+
+    /**
+     * Includes the heading line, which reaches twice the radius.
+     */
+    @Override
+    public double getRenderRadius() {
+        return radius * 2;
+    }
+
+    /**
+     * Renders the robot as a dot with a line pointing in its direction.
+     *
+     * @param gc The {@code GraphicsContext} used to draw the robot.
+     */
+    @Override
+    public void render(GraphicsContext gc) {
+        gc.setFill(Color.ORANGE);
+        gc.fillOval(x - radius, y - radius, radius * 2, radius * 2);
+
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(1);
+        gc.strokeLine(x, y,
+            x + radius * 2 * Math.cos(Math.toRadians(direction)),
+            y + radius * 2 * Math.sin(Math.toRadians(direction)));
+    }
+}
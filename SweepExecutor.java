@@ -0,0 +1,275 @@
+package Robot_Sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs many independent arenas concurrently for parameter sweeps.
+ * <p>
+ * Every run gets its own {@link Arena} built from its own seed, so runs share no
+ * state and each one is reproducible on its own. By default every run gets a
+ * virtual thread. Pass a work-stealing pool
+ * ({@link Executors#newWorkStealingPool()}) to cap the number of arenas alive
+ * at the same time.
+ * </p>
+ * <p>
+ * Virtual threads need JDK 21. On older JDKs the default executor is a
+ * work-stealing pool of platform threads, one per processor, which gives the same
+ * results.
+ * </p>
+ * <p>
+ * Example: {@code java Robot_Sim.SweepExecutor 200 2000 5 10 20} runs 200 arenas
+ * for 2000 ticks each, split over 5, 10 and 20 WhiskerRobots, and prints the
+ * aggregated results for each robot count.
+ * </p>
+ */
+public class SweepExecutor implements AutoCloseable {
+    private final ExecutorService executor;
+
+    /**
+     * Creates a sweep executor that starts one virtual thread per run, or uses a work-stealing pool before JDK 21.
+     */
+    public SweepExecutor() {
+        this(defaultExecutor());
+    }
+
+    /**
+     * Creates a sweep executor that runs arenas on the given executor.
+     *
+     * @param executor The executor for the runs. It is shut down by {@link #close()}.
+     */
+    public SweepExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a virtual thread per task executor if the JDK has one, a work-stealing pool otherwise.
+     */
+    private static ExecutorService defaultExecutor() {
+        try {
+            // Looked up by name so the class also compiles and runs on JDKs without virtual threads
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newWorkStealingPool();
+        }
+    }
+
+    /**
+     * Runs one arena per (parameter, seed) combination and waits for all of them.
+     *
+     * @param parameters The parameter values to sweep.
+     * @param seeds      The seeds to run each parameter with.
+     * @param ticks      The number of ticks to run each arena for.
+     * @param setup      Fills a fresh, empty arena for a parameter value.
+     * @param <P>        The type of the swept parameter.
+     * @return The results in the order of {@code parameters}, then {@code seeds}.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public <P> List<Result<P>> run(List<P> parameters, long[] seeds, int ticks, BiConsumer<P, Arena> setup)
+            throws InterruptedException {
+        List<Future<Result<P>>> futures = new ArrayList<>();
+        for (P parameter : parameters) {
+            for (long seed : seeds) {
+                futures.add(executor.submit(() -> runOne(parameter, seed, ticks, setup)));
+            }
+        }
+
+        List<Result<P>> results = new ArrayList<>(futures.size());
+        for (Future<Result<P>> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Sweep run failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Builds and runs a single arena.
+     */
+    private static <P> Result<P> runOne(P parameter, long seed, int ticks, BiConsumer<P, Arena> setup) {
+        long start = System.nanoTime();
+        Arena arena = new Arena(seed);
+        arena.setLogging(false);
+        arena.getMetrics().setEnabled(true);
+        arena.clearObjects();
+        setup.accept(parameter, arena);
+        for (int i = 0; i < ticks; i++) {
+            arena.updateObjects();
+        }
+        return new Result<>(parameter, seed, arena, System.nanoTime() - start);
+    }
+
+    /**
+     * Groups results by parameter and aggregates each group.
+     *
+     * @param results The results of {@link #run}.
+     * @param <P>     The type of the swept parameter.
+     * @return The aggregated results, one per parameter, in order of first appearance.
+     */
+    public static <P> List<Summary<P>> summarize(List<Result<P>> results) {
+        List<Summary<P>> summaries = new ArrayList<>();
+        for (Result<P> result : results) {
+            Summary<P> summary = null;
+            for (Summary<P> existing : summaries) {
+                if (existing.parameter.equals(result.parameter)) {
+                    summary = existing;
+                    break;
+                }
+            }
+            if (summary == null) {
+                summary = new Summary<>(result.parameter);
+                summaries.add(summary);
+            }
+            summary.add(result);
+        }
+        return summaries;
+    }
+
+    /**
+     * Stops accepting runs and releases the executor's threads.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * The outcome of one arena run.
+     *
+     * @param <P> The type of the swept parameter.
+     */
+    public static class Result<P> {
+        public final P parameter;
+        public final long seed;
+        public final long ticks;
+        public final int robots;		// Robots left at the end of the run
+        public final long collisions;
+        public final long teleports;
+        public final long absorptions;
+        public final long checksum;		// Final arena checksum, to compare runs across machines
+        public final long nanos;		// Wall time of the run
+
+        Result(P parameter, long seed, Arena arena, long nanos) {
+            this.parameter = parameter;
+            this.seed = seed;
+            this.ticks = arena.getTick();
+            this.robots = arena.getRobotsCount();
+            this.collisions = arena.getMetrics().getCollisions();
+            this.teleports = arena.getMetrics().getTeleports();
+            this.absorptions = arena.getMetrics().getAbsorptions();
+            this.checksum = arena.checksum();
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Aggregated results of all runs with the same parameter value.
+     *
+     * @param <P> The type of the swept parameter.
+     */
+    public static class Summary<P> {
+        public final P parameter;
+        private int runs = 0;
+        private long ticks = 0;
+        private long robots = 0;
+        private int minRobots = Integer.MAX_VALUE;
+        private int maxRobots = Integer.MIN_VALUE;
+        private long collisions = 0;
+        private long teleports = 0;
+        private long absorptions = 0;
+        private long nanos = 0;
+
+        Summary(P parameter) {
+            this.parameter = parameter;
+        }
+
+        void add(Result<P> result) {
+            runs++;
+            ticks += result.ticks;
+            robots += result.robots;
+            minRobots = Math.min(minRobots, result.robots);
+            maxRobots = Math.max(maxRobots, result.robots);
+            collisions += result.collisions;
+            teleports += result.teleports;
+            absorptions += result.absorptions;
+            nanos += result.nanos;
+        }
+
+        /** @return The number of runs in this group. */
+        public int getRuns() {
+            return runs;
+        }
+
+        /** @return The mean number of robots left at the end of a run. */
+        public double getMeanRobots() {
+            return runs == 0 ? 0 : (double) robots / runs;
+        }
+
+        /** @return The mean number of collisions per tick. */
+        public double getCollisionsPerTick() {
+            return ticks == 0 ? 0 : (double) collisions / ticks;
+        }
+
+        /** @return The simulated ticks per second of run time, summed over the runs of this group. */
+        public double getTicksPerSecond() {
+            return nanos == 0 ? 0 : ticks * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: runs=%d robots[mean=%.1f min=%d max=%d] collisions/tick=%.2f"
+                            + " teleports=%d absorptions=%d ticks/s=%.0f",
+                    parameter, runs, getMeanRobots(), minRobots, maxRobots, getCollisionsPerTick(),
+                    teleports, absorptions, getTicksPerSecond());
+        }
+    }
+
+    /**
+     * Runs a sweep over the number of WhiskerRobots from the command line.
+     *
+     * @param args Number of runs, ticks per run, then one or more robot counts.
+     * @throws InterruptedException If interrupted while waiting for the runs.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: SweepExecutor <runs> <ticks> <robots>...");
+            return;
+        }
+        int runs = Integer.parseInt(args[0]);
+        int ticks = Integer.parseInt(args[1]);
+        List<Integer> robotCounts = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            robotCounts.add(Integer.parseInt(args[i]));
+        }
+        long[] seeds = new long[Math.max(1, runs / robotCounts.size())];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = i + 1;
+        }
+
+        long start = System.nanoTime();
+        List<Result<Integer>> results;
+        try (SweepExecutor sweep = new SweepExecutor()) {
+            results = sweep.run(robotCounts, seeds, ticks, (robots, arena) -> {
+                for (int i = 0; i < robots; i++) {
+                    arena.spawn("WhiskerRobot");
+                }
+                for (int i = 0; i < 4; i++) {
+                    arena.spawn("Obstacle");
+                }
+                arena.spawn("TeleportPad");
+                arena.spawn("BlackHole");
+            });
+        }
+        for (Summary<Integer> summary : summarize(results)) {
+            System.out.println(summary);
+        }
+        System.out.printf("%d runs in %.1f s%n", results.size(), (System.nanoTime() - start) / 1e9);
+    }
+}
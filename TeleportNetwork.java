@@ -0,0 +1,130 @@
+package Robot_Sim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Chooses where teleported robots land.
+ * <p>
+ * A pad linked to an exit pad (see {@link Arena#linkPads}) sends robots to a free
+ * spot within {@code EXIT_RANGE} of the exit's edge; an unlinked pad sends them to a
+ * free spot anywhere in the arena. Free spots come from an {@link OccupancyGrid}, so
+ * a teleported robot never lands on an obstacle, black hole or pad, and never inside
+ * the range in which a black hole absorbs it.
+ * </p>
+ * <p>
+ * Robots move every tick, so they are not part of the tables. A drawn spot is
+ * checked against the other robots with the arena's {@link NeighbourGrid} and
+ * drawn again if it overlaps one, up to {@code MAX_DRAWS} times. If every draw
+ * overlaps a robot, the robot stays on its pad and tries again next tick, so a
+ * teleport never produces an immediate overlap.
+ * </p>
+ * <p>
+ * The landing spots for each robot size, and for each exit and robot size, are
+ * computed once and kept until a static object is added, moved or removed. A
+ * teleport then draws one table entry, which costs the same with thousands of pads.
+ * </p>
+ */
+class TeleportNetwork {
+    private static final double EXIT_RANGE = 40;	// Farthest landing spot from the exit pad's edge
+    private static final int MAX_DRAWS = 8;		// Spots tried before a robot waits for the next tick
+
+    private final OccupancyGrid grid = new OccupancyGrid(500, 500);
+    private final Map<Integer, int[]> freeSpots = new HashMap<>();	// Free cells per robot size
+    private final Map<Long, int[]> exitSpots = new HashMap<>();	// Free cells near an exit, per exit id and robot size
+    private boolean dirty = true;
+    private final NeighbourResult nearby = new NeighbourResult(16);
+    private final List<Robot> landed = new ArrayList<>();	// Robots teleported in this tick, the index holds their old spot
+    private long landedTick = -1;
+
+    /**
+     * Forgets the landing tables after a static object changed.
+     */
+    void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Moves a robot that entered a pad to its landing spot.
+     *
+     * @param pad    The pad the robot entered.
+     * @param exit   The pad's exit, or {@code null} if it is not linked.
+     * @param robot  The robot to teleport.
+     * @param random The arena's random generator.
+     * @param arena  The arena, to rebuild the grid from when needed.
+     * @param robots The arena's robot index, built after the robots moved in this tick.
+     * @return {@code false} if every spot drawn overlapped a robot and the robot stayed where it was.
+     */
+    boolean teleport(TeleportPad pad, TeleportPad exit, Robot robot, Random random, Arena arena, NeighbourGrid robots) {
+        if (dirty) {
+            grid.rebuild(arena.getObjects());
+            freeSpots.clear();
+            exitSpots.clear();
+            dirty = false;
+        }
+        if (landedTick != arena.getTick()) {
+            landed.clear(); // The index was rebuilt since
+            landedTick = arena.getTick();
+        }
+        int size = (int) Math.ceil(robot.radius);
+        int[] spots = null;
+        if (exit != null) {
+            spots = exitSpots.computeIfAbsent(((long) exit.id << 32) | size,
+                    key -> grid.freeCells(size, exit.x, exit.y, exit.radius + size + EXIT_RANGE));
+        }
+        if (spots == null || spots.length == 0) {
+            spots = freeSpots.computeIfAbsent(size, grid::freeCells);
+        }
+        if (spots.length == 0) {
+            pad.teleport(robot, random); // Robot too big for any free cell, land anywhere
+            landed.add(robot);
+            return true;
+        }
+        robots.ensure(arena.getObjects());
+        for (int draw = 0; draw < MAX_DRAWS; draw++) {
+            int cell = spots[random.nextInt(spots.length)];
+            double x = grid.getCellX(cell) + random.nextDouble() * OccupancyGrid.CELL;
+            double y = grid.getCellY(cell) + random.nextDouble() * OccupancyGrid.CELL;
+            if (!overlapsRobot(x, y, robot, robots)) {
+                robot.x = x;
+                robot.y = y;
+                landed.add(robot);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a robot placed at a spot would overlap another robot, like {@link Robot#checkCollision}.
+     */
+    private boolean overlapsRobot(double x, double y, Robot robot, NeighbourGrid robots) {
+        robots.within(x, y, robot.radius + robots.getMaxRadius(), robot, nearby);
+        boolean hit = false;
+        for (int i = 0; i < nearby.size && !hit; i++) {
+            Robot other = nearby.robots[i];
+            // Absorbed robots are gone, landed ones are checked below at their new spot
+            hit = other.index >= 0 && !landed.contains(other) && touches(x, y, robot.radius, other);
+        }
+        nearby.clear();
+        if (hit) {
+            return true;
+        }
+        for (int i = 0; i < landed.size(); i++) {
+            Robot other = landed.get(i);
+            if (other != robot && other.index >= 0 && touches(x, y, robot.radius, other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean touches(double x, double y, double radius, Robot other) {
+        double dx = x - other.x;
+        double dy = y - other.y;
+        return Math.sqrt(dx * dx + dy * dy) < radius + other.radius;
+    }
+}
@@ -1,5 +1,6 @@
 package Robot_Sim;
 
+import java.util.Random;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
@@ -10,8 +11,14 @@ import javafx.scene.paint.Color;
  * interacts with the teleport pad. A purple circle with a yellow border 
  * serves as the visual representation of the teleport pad.
  * </p>
+ * <p>
+ * Pads can be linked into networks with {@link Arena#linkPads}: a linked pad sends
+ * robots next to its exit pad instead. Either way the arena picks a free landing
+ * spot, so robots do not land on other objects.
+ * </p>
  */
 public class TeleportPad extends AbstractObject {
+    int exitId = 0;	// Id of the exit pad, 0 if robots land anywhere
 
     /**
      * Constructs a teleport pad with a specified position and radius.
@@ -24,6 +31,24 @@ public class TeleportPad extends AbstractObject {
         super(x, y, radius);
     }
 
+    /**
+     * Gives a recycled pad a new position and size and removes its link.
+     */
+    @Override
+    void reset(double x, double y, double radius) {
+        super.reset(x, y, radius);
+        this.exitId = 0;
+    }
+
+    /**
+     * Returns the id of the pad robots are sent to.
+     *
+     * @return The id of the exit pad, or 0 if the pad is not linked.
+     */
+    public int getExitId() {
+        return exitId;
+    }
+
     /**
      * Updates the status of the teleport pad.
      * <p>
@@ -37,19 +62,29 @@ public class TeleportPad extends AbstractObject {
 
     /**
      * Teleports the object to a random position within the arena bounds.
+     * <p>
+     * The arena only falls back to this when no free landing spot fits the object.
+     * </p>
      *
-     * @param obj The object to teleport. Its x and y coordinates is updated.
+     * @param obj    The object to teleport. Its x and y coordinates is updated.
+     * @param random The arena's random generator, so teleports can be replayed.
      */
-    public void teleport(AbstractObject obj) {
+    public void teleport(AbstractObject obj, Random random) {
         // Generate random coordinates within arena borders
-        double randomX = Math.random() * 480 + 10; // Random X coordinate
-        double randomY = Math.random() * 480 + 10; // Random Y coordinate
+        double randomX = random.nextDouble() * 480 + 10; // Random X coordinate
+        double randomY = random.nextDouble() * 480 + 10; // Random Y coordinate
 
         // Set object's position to the new random location
         obj.x = randomX;
         obj.y = randomY;
+    }
 
-        System.out.println("Object teleported to: (" + randomX + ", " + randomY + ")");
+    /**
+     * Includes the border, which is drawn centered on the edge.
+     */
+    @Override
+    public double getRenderRadius() {
+        return radius + 1;
     }
 
     /**
@@ -0,0 +1,278 @@
+package Robot_Sim;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Streams robot trajectories to a compressed binary file for offline analysis.
+ * <p>
+ * Every {@code sampleInterval} ticks one row (tick, robot id, x, y, direction) is
+ * recorded per robot. Rows are collected column by column into fixed-size chunks,
+ * and full chunks are handed to a background thread through a bounded queue, which
+ * compresses and writes them. When the queue is full the writer either blocks the
+ * simulation ({@link OverflowPolicy#BLOCK}) or drops the chunk
+ * ({@link OverflowPolicy#DROP}); dropped rows are counted.
+ * </p>
+ * <p>
+ * File layout: the magic {@code "TRJ1"} followed by chunks. Each chunk holds the
+ * number of rows, the raw and the compressed length, and the Deflate-compressed
+ * columns: the base tick (long), tick offsets (int), robot ids (int), and x, y and
+ * direction (float each).
+ * </p>
+ */
+public class TrajectoryWriter implements AutoCloseable {
+    private static final int MAGIC = 0x54524A31; // "TRJ1"
+
+    /**
+     * What to do with a full chunk when the writer queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait until the background writer has caught up. */
+        BLOCK,
+        /** Discard the chunk and keep simulating. */
+        DROP
+    }
+
+    private final int sampleInterval;	// Number of ticks between two samples
+    private final OverflowPolicy policy;
+    private final BlockingQueue<Chunk> pending;	// Full chunks waiting to be written
+    private final BlockingQueue<Chunk> free;	// Recycled chunks, so sampling does not allocate
+    private final Chunk poison;				// Tells the writer thread to stop
+    private final Thread thread;
+    private final DataOutputStream out;
+
+    private Chunk current;
+    private volatile long droppedRows = 0;
+    private volatile IOException failure;
+
+    /**
+     * Creates a trajectory writer.
+     *
+     * @param file           The file to write. It is replaced if it exists.
+     * @param sampleInterval The number of ticks between two samples.
+     * @param chunkRows      The number of rows per compressed chunk.
+     * @param queueCapacity  The number of full chunks that may wait for the writer.
+     * @param policy         What to do when the queue is full.
+     * @throws IOException If the file cannot be created.
+     */
+    public TrajectoryWriter(Path file, int sampleInterval, int chunkRows, int queueCapacity,
+            OverflowPolicy policy) throws IOException {
+        this.sampleInterval = Math.max(1, sampleInterval);
+        this.policy = policy;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity + 1); // Room for the poison chunk
+        this.free = new ArrayBlockingQueue<>(queueCapacity + 2);
+        for (int i = 0; i < queueCapacity + 1; i++) {
+            free.add(new Chunk(chunkRows));
+        }
+        this.current = new Chunk(chunkRows);
+        this.poison = new Chunk(0);
+
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(MAGIC);
+
+        this.thread = new Thread(this::writeLoop, "trajectory-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Records a sample of every robot if the arena's tick is due.
+     * <p>
+     * Must be called on the simulation thread after each tick.
+     * </p>
+     *
+     * @param arena The arena to sample.
+     */
+    public void sample(Arena arena) {
+        long tick = arena.getTick();
+        if (tick % sampleInterval != 0) {
+            return;
+        }
+        for (AbstractObject obj : arena.getObjects()) {
+            if (obj instanceof Robot && current.add(tick, (Robot) obj)) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Hands the current chunk to the writer and takes a recycled one.
+     */
+    private void flush() {
+        if (current.size == 0) {
+            return;
+        }
+        try {
+            if (policy == OverflowPolicy.BLOCK) {
+                pending.put(current);
+                current = free.take();
+            } else {
+                Chunk next = free.poll();
+                if (next != null && pending.offer(current)) {
+                    current = next;
+                } else {
+                    if (next != null) {
+                        free.add(next);
+                    }
+                    droppedRows += current.size;
+                    current.size = 0; // Reuse the chunk, its rows are lost
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Background loop: compresses and writes chunks until the poison chunk arrives.
+     */
+    private void writeLoop() {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteBuffer raw = ByteBuffer.allocate(0);
+        byte[] compressed = new byte[0];
+        try {
+            while (true) {
+                Chunk chunk = pending.take();
+                if (chunk == poison) {
+                    break;
+                }
+                if (failure == null) {
+                    int rawLength = 8 + chunk.size * 20;
+                    if (raw.capacity() < rawLength) {
+                        raw = ByteBuffer.allocate(rawLength);
+                        compressed = new byte[rawLength + rawLength / 100 + 64];
+                    }
+                    chunk.encode(raw);
+
+                    deflater.reset();
+                    deflater.setInput(raw.array(), 0, rawLength);
+                    deflater.finish();
+                    int length = 0;
+                    while (!deflater.finished()) {
+                        length += deflater.deflate(compressed, length, compressed.length - length);
+                    }
+
+                    try {
+                        out.writeInt(chunk.size);
+                        out.writeInt(rawLength);
+                        out.writeInt(length);
+                        out.write(compressed, 0, length);
+                    } catch (IOException e) {
+                        failure = e;
+                        System.err.println("Failed to write trajectory: " + e.getMessage());
+                    }
+                }
+                chunk.size = 0;
+                free.offer(chunk);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the number of rows discarded because the writer could not keep up.
+     *
+     * @return The number of dropped rows.
+     */
+    public long getDroppedRows() {
+        return droppedRows;
+    }
+
+    /**
+     * Writes the remaining rows and closes the file.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (current.size > 0) {
+            try {
+                pending.put(current); // Never drop the final chunk
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            pending.put(poison);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        if (failure != null) {
+            throw failure;
+        }
+        if (droppedRows > 0) {
+            System.out.println("Trajectory writer dropped " + droppedRows + " rows.");
+        }
+    }
+
+    /**
+     * A fixed number of rows stored column by column.
+     */
+    private static final class Chunk {
+        final long[] ticks;
+        final int[] ids;
+        final float[] x;
+        final float[] y;
+        final float[] direction;
+        int size = 0;
+
+        Chunk(int capacity) {
+            ticks = new long[capacity];
+            ids = new int[capacity];
+            x = new float[capacity];
+            y = new float[capacity];
+            direction = new float[capacity];
+        }
+
+        /**
+         * Appends one row.
+         *
+         * @return {@code true} if the chunk is now full.
+         */
+        boolean add(long tick, Robot robot) {
+            ticks[size] = tick;
+            ids[size] = robot.getId();
+            x[size] = (float) robot.getX();
+            y[size] = (float) robot.getY();
+            direction[size] = (float) robot.getDirection();
+            size++;
+            return size == ids.length;
+        }
+
+        /**
+         * Writes the columns into the buffer, ticks as offsets to the first tick.
+         */
+        void encode(ByteBuffer raw) {
+            raw.clear();
+            long base = ticks[0];
+            raw.putLong(base);
+            for (int i = 0; i < size; i++) {
+                raw.putInt((int) (ticks[i] - base));
+            }
+            for (int i = 0; i < size; i++) {
+                raw.putInt(ids[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                raw.putFloat(x[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                raw.putFloat(y[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                raw.putFloat(direction[i]);
+            }
+        }
+    }
+}
@@ -13,7 +13,7 @@ import javafx.scene.paint.Color;
  */
 public class WhiskerRobot extends Robot {
     /** The length of the whiskers */
-    private final double whiskerLength;
+    private double whiskerLength;
 
     /**
      * Constructs a Whisker Robot with specified position, radius, speed, and direction.
@@ -31,52 +31,34 @@ public class WhiskerRobot extends Robot {
     }
 
     /**
-     * Activates the whisker sensor.
-     * <p>
-     * This technique is used periodically throughout the simulation to identify and react
-     *  to obstacles.
-     * </p>
+     * Gives a recycled robot a new state and recomputes the whisker length.
      */
     @Override
-    public void sense() {
-        System.out.println("Whisker sensor activated");
+    void reset(double x, double y, double radius, double speed, double direction) {
+        super.reset(x, y, radius, speed, direction);
+        this.whiskerLength = radius * 2;
     }
 
     /**
-     * Updates the robot's state by avoiding obstacles and calling the base update method.
+     * Activates the whisker sensor.
      * <p>
-     * The robot checks for nearby obstacles using its whisker sensors and turns 90 degrees
-     * to avoid collisions.
+     * Obstacle avoidance is done by the robot's controller in the arena's control
+     * phase ({@link AvoidanceController#WHISKER} by default): the whiskers reach 10 beyond
+     * the radii and the robot turns 90 degrees for every obstacle they touch.
      * </p>
+     *
+     * @param arena The arena containing all objects.
      */
     @Override
-    public void update() {
-        avoidObstacles(Arena.getInstance());
-        super.update();
+    public void sense(Arena arena) {
     }
 
     /**
-     * Detects and avoids nearby obstacles in the arena.
-     * <p>
-     * If the robot detects an obstacle within its whisker range, it turns 90 degrees
-     * to avoid the obstacle.
-     * </p>
-     *
-     * @param arena The arena containing all objects, including obstacles.
+     * Includes the whiskers, which reach twice the radius.
      */
-    protected void avoidObstacles(Arena arena) {
-        for (AbstractObject item : arena.getObjects()) {
-            if (item instanceof Obstacle) {
-                double dx = item.x - this.x;
-                double dy = item.y - this.y;
-                double distance = Math.sqrt(dx * dx + dy * dy);
-
-                if (distance < this.radius + item.radius + 10) {
-                    this.direction += 90; // Turn 90 degrees to avoid the obstacle
-                    this.direction = this.direction % 360; // Normalize the direction
-                }
-            }
-        }
+    @Override
+    public double getRenderRadius() {
+        return Math.max(super.getRenderRadius(), whiskerLength);
     }
 
     /**
@@ -0,0 +1,59 @@
+package Robot_Sim;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * {@link MotionKernel} that moves the arena's robots with the loop of {@link RobotStore}.
+ * <p>
+ * The packed arrays are copied into off-heap columns with bulk copies, moved by
+ * {@link RobotStore#integrate} and copied back. The copies make it slower than the
+ * array kernels; its purpose is to run every arena scene, recording and checksum
+ * through the store's kernel, so the off-heap path is held to the same bit-for-bit
+ * contract as the other kernels. Overlap tests use {@link ScalarMotionKernel}.
+ * </p>
+ * <p>
+ * Lives in the optional {@code offheap} source root and needs
+ * {@code --enable-preview}. {@link MotionKernel#preferred()} loads it by name when
+ * the JVM is started with {@code -Drobotsim.offheap=true}.
+ * </p>
+ */
+public class OffHeapMotionKernel implements MotionKernel {
+    private static final int COLUMNS = 7;
+    private final java.lang.foreign.Arena memory = java.lang.foreign.Arena.ofAuto();	// Freed by the GC with the kernel
+    private MemorySegment columns = MemorySegment.NULL;
+    private int capacity = 0;	// Robots per column
+
+    @Override
+    public void integrate(double[] x, double[] y, double[] radius, double[] speed, double[] cos, double[] sin,
+                          double[] direction, int n, double width, double height) {
+        if (n > capacity) {
+            capacity = Math.max(n, capacity * 2);
+            columns = memory.allocate((long) COLUMNS * capacity * Double.BYTES, Double.BYTES);
+        }
+        MemorySegment sx = copyIn(x, 0, n), sy = copyIn(y, 1, n), sr = copyIn(radius, 2, n), ss = copyIn(speed, 3, n);
+        MemorySegment sc = copyIn(cos, 4, n), sn = copyIn(sin, 5, n), sd = copyIn(direction, 6, n);
+        RobotStore.integrate(sx, sy, sr, ss, sc, sn, sd, 0, n, width, height);
+        MemorySegment.copy(sx, RobotStore.DOUBLE, 0, x, 0, n);
+        MemorySegment.copy(sy, RobotStore.DOUBLE, 0, y, 0, n);
+        MemorySegment.copy(sd, RobotStore.DOUBLE, 0, direction, 0, n);
+    }
+
+    /**
+     * Copies the first {@code n} values of an array into a column and returns the column.
+     */
+    private MemorySegment copyIn(double[] values, int column, int n) {
+        MemorySegment segment = columns.asSlice((long) column * capacity * Double.BYTES, (long) n * Double.BYTES);
+        MemorySegment.copy(values, 0, segment, RobotStore.DOUBLE, 0, n);
+        return segment;
+    }
+
+    @Override
+    public int overlaps(double px, double py, double pr, double[] x, double[] y, double[] radius, int n, int[] hits) {
+        return ScalarMotionKernel.overlaps(px, py, pr, x, y, radius, 0, n, hits, 0);
+    }
+
+    @Override
+    public String getName() {
+        return "off-heap";
+    }
+}
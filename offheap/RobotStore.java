@@ -0,0 +1,472 @@
+package Robot_Sim;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Robot state kept off the Java heap, for runs with tens of millions of robots.
+ * <p>
+ * Every robot is a row of seven doubles (position, direction, speed, radius and the
+ * cached cosine and sine of its direction) and a type byte, stored column by column
+ * in one {@link MemorySegment}: about 57 bytes per robot, with no object header,
+ * no padding and nothing for the garbage collector to trace. {@link #tick()} moves
+ * the robots and bounces them off the walls straight on the columns, in parallel
+ * chunks, with the same arithmetic as {@link ScalarMotionKernel}, so a robot
+ * stored here follows exactly the path its {@link Robot} would take without a
+ * controller in an arena without other objects. Collisions, sensing and
+ * controllers need the object model.
+ * </p>
+ * <p>
+ * A store either lives in memory ({@link #allocate}) or is mapped from a file
+ * ({@link #create}, {@link #open}). A mapped store is its own snapshot: after
+ * {@link #force()} the file holds the header, including the tick count, and every
+ * column, and {@link #open} continues the run from it. The file layout is a 64-byte
+ * header (magic {@code "RST1"}, version, capacity, size, tick, width, height) and
+ * then the columns x, y, direction, speed, radius, cosine and sine with
+ * {@code capacity} little-endian doubles each, followed by {@code capacity} type
+ * bytes.
+ * </p>
+ * <p>
+ * The foreign memory API is a preview API in JDK 21, so this class lives in the
+ * optional {@code offheap} source root together with {@link OffHeapMotionKernel},
+ * which runs the same loop for the arena. Both need {@code --enable-preview} at
+ * compile time and run time; the main sources never refer to them, so the rest of
+ * the simulation builds and runs without the flag (see the README). The store is
+ * used from one thread, apart from the chunks {@link #tick()} runs itself.
+ * </p>
+ */
+public class RobotStore implements AutoCloseable {
+    private static final int MAGIC = 0x52535431; // "RST1"
+    private static final int VERSION = 1;
+    private static final long HEADER = 64;
+    private static final int COLUMNS = 7;		// Double columns, the type bytes follow them
+    private static final int CHUNK = 1 << 16;	// Robots moved per task
+    static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    /** Types a store holds, by type byte; only robots moved by {@link Robot#update()} itself. */
+    private static final List<String> TYPES = List.of("BumpSensorRobot", "WhiskerRobot", "BeamSensorRobot", "SwarmRobot");
+
+    private final java.lang.foreign.Arena memory;	// Owns the segment, named in full to avoid the simulation's Arena
+    private final MemorySegment segment;
+    private final MemorySegment x, y, direction, speed, radius, cos, sin, types;
+    private final long capacity;
+    private final double width;
+    private final double height;
+    private long size;
+    private long tick;
+
+    private RobotStore(java.lang.foreign.Arena memory, MemorySegment segment, long capacity) {
+        this.memory = memory;
+        this.segment = segment;
+        this.capacity = capacity;
+        long column = capacity * Double.BYTES;
+        x = segment.asSlice(HEADER, column);
+        y = segment.asSlice(HEADER + column, column);
+        direction = segment.asSlice(HEADER + 2 * column, column);
+        speed = segment.asSlice(HEADER + 3 * column, column);
+        radius = segment.asSlice(HEADER + 4 * column, column);
+        cos = segment.asSlice(HEADER + 5 * column, column);
+        sin = segment.asSlice(HEADER + 6 * column, column);
+        types = segment.asSlice(HEADER + COLUMNS * column, capacity);
+        size = segment.get(LONG, 16);
+        tick = segment.get(LONG, 24);
+        width = segment.get(DOUBLE, 32);
+        height = segment.get(DOUBLE, 40);
+    }
+
+    /**
+     * Returns the number of bytes of a store.
+     */
+    private static long bytes(long capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        return HEADER + capacity * (COLUMNS * Double.BYTES + 1);
+    }
+
+    /**
+     * Writes the header of a new, empty store.
+     */
+    private static void writeHeader(MemorySegment segment, long capacity, double width, double height) {
+        segment.set(INT, 0, MAGIC);
+        segment.set(INT, 4, VERSION);
+        segment.set(LONG, 8, capacity);
+        segment.set(LONG, 16, 0);
+        segment.set(LONG, 24, 0);
+        segment.set(DOUBLE, 32, width);
+        segment.set(DOUBLE, 40, height);
+    }
+
+    /**
+     * Creates an empty store in memory outside the heap.
+     * <p>
+     * The memory counts against {@code -XX:MaxDirectMemorySize}, which defaults to the
+     * maximum heap size, so large stores need the limit raised or a file instead.
+     * </p>
+     *
+     * @param capacity The number of robots it holds.
+     * @param width    The width of the arena.
+     * @param height   The height of the arena.
+     * @return The store, to be closed when no longer needed.
+     * @throws IllegalArgumentException If the capacity is below 1.
+     */
+    public static RobotStore allocate(long capacity, double width, double height) {
+        long bytes = bytes(capacity);
+        java.lang.foreign.Arena memory = java.lang.foreign.Arena.ofShared();
+        MemorySegment segment = memory.allocate(bytes, Double.BYTES);
+        writeHeader(segment, capacity, width, height);
+        return new RobotStore(memory, segment, capacity);
+    }
+
+    /**
+     * Creates an empty store mapped from a file.
+     *
+     * @param file     The file to map. It is replaced if it exists.
+     * @param capacity The number of robots it holds.
+     * @param width    The width of the arena.
+     * @param height   The height of the arena.
+     * @return The store, to be closed when no longer needed.
+     * @throws IOException If the file cannot be created or mapped.
+     * @throws IllegalArgumentException If the capacity is below 1.
+     */
+    public static RobotStore create(Path file, long capacity, double width, double height) throws IOException {
+        long bytes = bytes(capacity);
+        java.lang.foreign.Arena memory = java.lang.foreign.Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes, memory);
+            writeHeader(segment, capacity, width, height);
+            return new RobotStore(memory, segment, capacity);
+        } catch (IOException | RuntimeException e) {
+            memory.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps a store written earlier, to continue its run.
+     *
+     * @param file The file of the store.
+     * @return The store, to be closed when no longer needed.
+     * @throws IOException If the file cannot be mapped or is not a robot store.
+     */
+    public static RobotStore open(Path file) throws IOException {
+        java.lang.foreign.Arena memory = java.lang.foreign.Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long length = channel.size();
+            if (length < HEADER) {
+                throw new IOException("Not a robot store: " + file);
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, length, memory);
+            long capacity = segment.get(LONG, 8);
+            if (segment.get(INT, 0) != MAGIC || segment.get(INT, 4) != VERSION || capacity < 1
+                    || length != bytes(capacity) || segment.get(LONG, 16) > capacity) {
+                throw new IOException("Not a robot store: " + file);
+            }
+            return new RobotStore(memory, segment, capacity);
+        } catch (IOException | RuntimeException e) {
+            memory.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a robot.
+     *
+     * @param type      The simple class name of the robot (e.g. {@code "WhiskerRobot"}).
+     * @param x         The x-coordinate of the robot.
+     * @param y         The y-coordinate of the robot.
+     * @param radius    The radius of the robot.
+     * @param speed     The speed of the robot.
+     * @param direction The direction of the robot in degrees.
+     * @return The index of the robot.
+     * @throws IllegalArgumentException If the type is not a robot moved by {@link Robot#update()} itself.
+     * @throws IllegalStateException    If the store is full.
+     */
+    public long add(String type, double x, double y, double radius, double speed, double direction) {
+        int code = TYPES.indexOf(type);
+        if (code < 0) {
+            throw new IllegalArgumentException("Cannot store " + type);
+        }
+        if (size == capacity) {
+            throw new IllegalStateException("Robot store full: " + capacity);
+        }
+        long i = size++;
+        this.x.setAtIndex(DOUBLE, i, x);
+        this.y.setAtIndex(DOUBLE, i, y);
+        this.radius.setAtIndex(DOUBLE, i, radius);
+        this.speed.setAtIndex(DOUBLE, i, speed);
+        types.set(ValueLayout.JAVA_BYTE, i, (byte) code);
+        setDirection(i, direction);
+        segment.set(LONG, 16, size);
+        return i;
+    }
+
+    /**
+     * Appends a copy of a robot's state.
+     *
+     * @param robot The robot, which is left unchanged.
+     * @return The index of the copy.
+     * @throws IllegalArgumentException If the robot overrides {@link Robot#update()}, e.g. a ControlBot.
+     * @throws IllegalStateException    If the store is full.
+     */
+    public long add(Robot robot) {
+        return add(robot.getClass().getSimpleName(), robot.x, robot.y, robot.radius, robot.speed, robot.direction);
+    }
+
+    /**
+     * Creates a robot object with the state of a stored robot, e.g. to inspect or draw a few of them.
+     *
+     * @param i     The index of the robot.
+     * @param arena The arena whose factory creates the object; the robot is not added to it.
+     * @return A new robot.
+     */
+    public Robot createRobot(long i, Arena arena) {
+        return (Robot) arena.createObject(getType(i), getX(i), getY(i), getRadius(i), getSpeed(i), getDirection(i));
+    }
+
+    /**
+     * Moves every robot one step and bounces it off the walls, then counts the tick.
+     */
+    public void tick() {
+        int chunks = (int) ((size + CHUNK - 1) / CHUNK);
+        if (chunks > 1) {
+            IntStream.range(0, chunks).parallel().forEach(c -> integrate((long) c * CHUNK, Math.min(size, (long) (c + 1) * CHUNK)));
+        } else {
+            integrate(0, size);
+        }
+        tick++;
+        segment.set(LONG, 24, tick);
+    }
+
+    /**
+     * Moves the robots {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    private void integrate(long from, long to) {
+        integrate(x, y, radius, speed, cos, sin, direction, from, (int) (to - from), width, height);
+    }
+
+    /**
+     * Moves a range of robots stored in column segments one step and bounces them off the walls, like {@link ScalarMotionKernel}.
+     * <p>
+     * A direction that changed gets its cosine and sine recomputed, as {@link Robot}
+     * does for its cached heading, so the next step uses the same values.
+     * </p>
+     *
+     * @param x         The x-coordinates.
+     * @param y         The y-coordinates.
+     * @param radius    The radii.
+     * @param speed     The speeds.
+     * @param cos       The cosine of each direction.
+     * @param sin       The sine of each direction.
+     * @param direction The directions in degrees.
+     * @param from      The index of the first robot.
+     * @param n         The number of robots.
+     * @param width     The width of the arena.
+     * @param height    The height of the arena.
+     */
+    static void integrate(MemorySegment x, MemorySegment y, MemorySegment radius, MemorySegment speed,
+                          MemorySegment cos, MemorySegment sin, MemorySegment direction,
+                          long from, int n, double width, double height) {
+        // Sliced here rather than by the caller, so the JIT sees the exact segments and
+        // the loop runs on an int index whose bounds it checks once
+        long offset = from * Double.BYTES;
+        long length = (long) n * Double.BYTES;
+        x = x.asSlice(offset, length);
+        y = y.asSlice(offset, length);
+        radius = radius.asSlice(offset, length);
+        speed = speed.asSlice(offset, length);
+        cos = cos.asSlice(offset, length);
+        sin = sin.asSlice(offset, length);
+        direction = direction.asSlice(offset, length);
+        for (int i = 0; i < n; i++) {
+            double s = speed.getAtIndex(DOUBLE, i);
+            double px = x.getAtIndex(DOUBLE, i) + s * cos.getAtIndex(DOUBLE, i);
+            double py = y.getAtIndex(DOUBLE, i) + s * sin.getAtIndex(DOUBLE, i);
+            double r = radius.getAtIndex(DOUBLE, i);
+            double previous = direction.getAtIndex(DOUBLE, i);
+            double d = previous;
+
+            if (px - r < 0) {
+                px = r;
+                d = 180 - d;
+            } else if (px + r > width) {
+                px = width - r;
+                d = 180 - d;
+            }
+
+            if (py - r < 0) {
+                py = r;
+                d = -d;
+            } else if (py + r > height) {
+                py = height - r;
+                d = -d;
+            }
+
+            x.setAtIndex(DOUBLE, i, px);
+            y.setAtIndex(DOUBLE, i, py);
+            double a = d + 360; // (d + 360) % 360 without the division for sums in [0, 720), as VectorMotionKernel does
+            if (a >= 360 && a < 720) {
+                d = a - 360;
+            } else {
+                d = a >= 0 && a < 360 ? a : a % 360;
+            }
+            if (Double.doubleToRawLongBits(d) != Double.doubleToRawLongBits(previous)) {
+                direction.setAtIndex(DOUBLE, i, d);
+                cos.setAtIndex(DOUBLE, i, Math.cos(Math.toRadians(d)));
+                sin.setAtIndex(DOUBLE, i, Math.sin(Math.toRadians(d)));
+            }
+        }
+    }
+
+    /**
+     * Computes a checksum like {@link Arena#checksum()}, so a store and an arena holding the same robots agree.
+     *
+     * @return A checksum of the positions and directions of all robots.
+     */
+    public long checksum() {
+        long hash = size;
+        for (long i = 0; i < size; i++) {
+            hash = hash * 31 + Double.doubleToLongBits(x.getAtIndex(DOUBLE, i));
+            hash = hash * 31 + Double.doubleToLongBits(y.getAtIndex(DOUBLE, i));
+            hash = hash * 31 + Double.doubleToLongBits(direction.getAtIndex(DOUBLE, i));
+        }
+        return hash;
+    }
+
+    /**
+     * Writes the changes of a mapped store to its file; does nothing for a store in memory.
+     */
+    public void force() {
+        if (segment.isMapped()) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Releases the memory or unmaps the file. The store cannot be used afterwards; closing it again does nothing.
+     */
+    @Override
+    public void close() {
+        if (memory.scope().isAlive()) {
+            memory.close();
+        }
+    }
+
+    /**
+     * Returns the number of robots stored.
+     *
+     * @return The number of valid rows.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of robots the store holds.
+     *
+     * @return The capacity.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of ticks run, including those before the store was saved and opened again.
+     *
+     * @return The tick count.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the simple class name of a stored robot.
+     *
+     * @param i The index of the robot.
+     * @return The type, e.g. {@code "WhiskerRobot"}.
+     */
+    public String getType(long i) {
+        return TYPES.get(types.get(ValueLayout.JAVA_BYTE, i));
+    }
+
+    /**
+     * Returns the x-coordinate of a stored robot.
+     *
+     * @param i The index of the robot.
+     * @return The x-coordinate.
+     */
+    public double getX(long i) {
+        return x.getAtIndex(DOUBLE, i);
+    }
+
+    /**
+     * Returns the y-coordinate of a stored robot.
+     *
+     * @param i The index of the robot.
+     * @return The y-coordinate.
+     */
+    public double getY(long i) {
+        return y.getAtIndex(DOUBLE, i);
+    }
+
+    /**
+     * Returns the radius of a stored robot.
+     *
+     * @param i The index of the robot.
+     * @return The radius.
+     */
+    public double getRadius(long i) {
+        return radius.getAtIndex(DOUBLE, i);
+    }
+
+    /**
+     * Returns the speed of a stored robot.
+     *
+     * @param i The index of the robot.
+     * @return The speed.
+     */
+    public double getSpeed(long i) {
+        return speed.getAtIndex(DOUBLE, i);
+    }
+
+    /**
+     * Sets the speed of a stored robot.
+     *
+     * @param i     The index of the robot.
+     * @param speed The new speed.
+     */
+    public void setSpeed(long i, double speed) {
+        this.speed.setAtIndex(DOUBLE, i, speed);
+    }
+
+    /**
+     * Returns the direction of a stored robot.
+     *
+     * @param i The index of the robot.
+     * @return The direction in degrees.
+     */
+    public double getDirection(long i) {
+        return direction.getAtIndex(DOUBLE, i);
+    }
+
+    /**
+     * Sets the direction of a stored robot and its cached cosine and sine.
+     *
+     * @param i         The index of the robot.
+     * @param direction The new direction in degrees.
+     */
+    public void setDirection(long i, double direction) {
+        this.direction.setAtIndex(DOUBLE, i, direction);
+        cos.setAtIndex(DOUBLE, i, Math.cos(Math.toRadians(direction)));
+        sin.setAtIndex(DOUBLE, i, Math.sin(Math.toRadians(direction)));
+    }
+}
@@ -0,0 +1,91 @@
+package Robot_Sim;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Checks that {@link AutosaveManager} restores the arena it saved.
+ * <p>
+ * Run with {@code java -cp out Robot_Sim.AutosaveTest}; see the README.
+ * </p>
+ */
+public class AutosaveTest {
+
+    public static void main(String[] args) throws Exception {
+        deltaKeepsSpeedChanges();
+        System.out.println("AutosaveTest passed");
+    }
+
+    /**
+     * Speeds changed after the base snapshot survive a restore from base plus delta.
+     */
+    static void deltaKeepsSpeedChanges() throws Exception {
+        Arena arena = new Arena(5);
+        arena.setLogging(false);
+        arena.clearObjects();
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("Obstacle", 4);
+        mix.put("BumpSensorRobot", 20);
+        arena.populate(mix);
+
+        Path directory = Files.createTempDirectory("autosave");
+        try {
+            AutosaveManager autosave = new AutosaveManager(directory, 1000, 10);
+            autosave.checkpoint(arena); // Base snapshot
+            for (int t = 0; t < 10; t++) {
+                arena.updateObjects();
+            }
+            Robot stopped = robot(arena, 0);
+            Robot faster = robot(arena, 1);
+            stopped.speed = 0; // Only the speed changes, position and direction stay
+            faster.speed = 5;
+            autosave.close(arena); // Delta
+
+            Arena restored = new Arena(5);
+            restored.setLogging(false);
+            check(AutosaveManager.restore(directory, restored), "no base snapshot found");
+            List<AbstractObject> objects = arena.getObjects();
+            check(restored.getObjects().size() == objects.size(), "restored " + restored.getObjects().size()
+                    + " objects instead of " + objects.size());
+            for (AbstractObject obj : objects) {
+                AbstractObject copy = restored.getObject(obj.getId());
+                check(copy != null && copy.getX() == obj.getX() && copy.getY() == obj.getY(),
+                        obj + " was not restored at its position");
+                if (obj instanceof Robot) {
+                    Robot robot = (Robot) obj;
+                    Robot restoredRobot = (Robot) copy;
+                    check(restoredRobot.getSpeed() == robot.getSpeed(), robot + " was restored with speed "
+                            + restoredRobot.getSpeed() + " instead of " + robot.getSpeed());
+                    check(restoredRobot.getDirection() == robot.getDirection(), robot + " lost its direction");
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Returns the {@code n}-th robot of the arena in list order.
+     */
+    static Robot robot(Arena arena, int n) {
+        for (AbstractObject obj : arena.getObjects()) {
+            if (obj instanceof Robot && n-- == 0) {
+                return (Robot) obj;
+            }
+        }
+        throw new AssertionError("arena has too few robots");
+    }
+
+    static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
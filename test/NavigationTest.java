@@ -0,0 +1,126 @@
+package Robot_Sim;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks {@link Arena#navigateTo} and {@link GoalController}.
+ * <p>
+ * Run with {@code java -cp out Robot_Sim.NavigationTest}; see the README.
+ * </p>
+ */
+public class NavigationTest {
+
+    public static void main(String[] args) throws Exception {
+        resentRobotMovesAgain();
+        for (long seed : new long[]{4, 6, 11}) {
+            recordingStartedMidNavigationReplays(seed);
+        }
+        System.out.println("NavigationTest passed");
+    }
+
+    /**
+     * A robot that stopped at one goal drives to the next one at its old speed.
+     */
+    static void resentRobotMovesAgain() {
+        Arena arena = emptyArena(1);
+        Robot robot = (Robot) arena.createObject("BumpSensorRobot", 100, 100, 10, 3, 0);
+        arena.addObject(robot);
+
+        arena.navigateTo(robot, 300, 100);
+        runUntilStopped(arena, robot, 500);
+        check(Math.abs(robot.getX() - 300) <= robot.getRadius() + 3, "robot did not reach the first goal");
+
+        arena.navigateTo(robot, 300, 400);
+        for (int t = 0; t < 5; t++) {
+            arena.updateObjects();
+        }
+        check(robot.getSpeed() == 3, "robot kept speed " + robot.getSpeed() + " after being sent again");
+        runUntilStopped(arena, robot, 500);
+        check(Math.abs(robot.getY() - 400) <= robot.getRadius() + 3, "robot did not reach the second goal");
+    }
+
+    /**
+     * A recording started while robots navigate, some of them already arrived, replays without divergence.
+     */
+    static void recordingStartedMidNavigationReplays(long seed) throws Exception {
+        Arena arena = emptyArena(seed);
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("Obstacle", 6);
+        mix.put("BumpSensorRobot", 40);
+        arena.populate(mix);
+        List<Robot> robots = new ArrayList<>();
+        for (AbstractObject obj : arena.getObjects()) {
+            if (obj instanceof Robot) {
+                robots.add((Robot) obj);
+            }
+        }
+        Random goals = new Random(seed);
+        for (int r = 0; r < robots.size(); r++) {
+            // Half of them get a goal next to them, so they have arrived when recording starts
+            Robot robot = robots.get(r);
+            if (r % 2 == 0) {
+                arena.navigateTo(robot, robot.getX(), robot.getY());
+            } else {
+                arena.navigateTo(robot, 20 + goals.nextDouble() * 460, 20 + goals.nextDouble() * 460);
+            }
+        }
+        for (int t = 0; t < 30; t++) {
+            arena.updateObjects();
+        }
+
+        Path file = Files.createTempFile("navigation", ".log");
+        Files.delete(file);
+        try {
+            SimulationRecorder recorder = new SimulationRecorder(file, arena, 1);
+            for (int t = 0; t < 400; t++) {
+                if (t == 100) {
+                    for (int r = 0; r < robots.size(); r += 4) {
+                        arena.navigateTo(robots.get(r), 250, 250); // Arrived robots drive off again
+                    }
+                }
+                arena.updateObjects();
+                recorder.afterTick();
+            }
+            recorder.close();
+
+            SimulationReplayer replayer = SimulationReplayer.replay(file);
+            check(replayer.getDivergedAt() < 0, "seed " + seed + ": replay diverged at tick " + replayer.getDivergedAt());
+            check(replayer.getChecksumsVerified() == 400, "seed " + seed + ": only "
+                    + replayer.getChecksumsVerified() + " checksums verified");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Creates an arena without the default objects.
+     */
+    static Arena emptyArena(long seed) {
+        Arena arena = new Arena(seed);
+        arena.setLogging(false);
+        arena.clearObjects();
+        return arena;
+    }
+
+    /**
+     * Runs ticks until the robot stops, at most {@code ticks}.
+     */
+    static void runUntilStopped(Arena arena, Robot robot, int ticks) {
+        for (int t = 0; t < ticks && (t == 0 || robot.getSpeed() != 0); t++) {
+            arena.updateObjects();
+        }
+        check(robot.getSpeed() == 0, "robot did not stop within " + ticks + " ticks");
+    }
+
+    static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package Robot_Sim;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link MotionKernel} built on the incubating Vector API.
+ * <p>
+ * Processes as many robots per instruction as the CPU's preferred vector shape holds
+ * and hands the remainder to {@link ScalarMotionKernel}. Only operations that round
+ * exactly like their scalar counterparts are used: separate multiply and add
+ * instead of fused multiply-add, and {@code SQRT}, which is correctly rounded.
+ * Wall bounces become masked blends. {@code %} has no lane-wise form, so the
+ * direction is normalised with a compare and a subtraction, which is exact for the
+ * range it is applied to; other values are left to a scalar pass.
+ * </p>
+ * <p>
+ * Lives in the optional {@code vector} source root, so the main sources build
+ * without the incubator module. It needs {@code --add-modules jdk.incubator.vector}
+ * at compile time and run time; {@link MotionKernel#preferred()} only loads this
+ * class when the module is present.
+ * </p>
+ */
+public class VectorMotionKernel implements MotionKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void integrate(double[] x, double[] y, double[] radius, double[] speed, double[] cos, double[] sin,
+                          double[] direction, int n, double width, double height) {
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        DoubleVector w = DoubleVector.broadcast(SPECIES, width);
+        DoubleVector h = DoubleVector.broadcast(SPECIES, height);
+        DoubleVector half = DoubleVector.broadcast(SPECIES, 180);
+        DoubleVector full = DoubleVector.broadcast(SPECIES, 360);
+        DoubleVector twice = DoubleVector.broadcast(SPECIES, 720);
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector r = DoubleVector.fromArray(SPECIES, radius, i);
+            DoubleVector s = DoubleVector.fromArray(SPECIES, speed, i);
+            DoubleVector px = DoubleVector.fromArray(SPECIES, x, i).add(s.mul(DoubleVector.fromArray(SPECIES, cos, i)));
+            DoubleVector py = DoubleVector.fromArray(SPECIES, y, i).add(s.mul(DoubleVector.fromArray(SPECIES, sin, i)));
+            DoubleVector d = DoubleVector.fromArray(SPECIES, direction, i);
+
+            VectorMask<Double> left = px.sub(r).compare(VectorOperators.LT, zero);
+            VectorMask<Double> right = px.add(r).compare(VectorOperators.GT, w).andNot(left);
+            px = px.blend(r, left).blend(w.sub(r), right);
+            d = d.blend(half.sub(d), left.or(right));
+
+            VectorMask<Double> top = py.sub(r).compare(VectorOperators.LT, zero);
+            VectorMask<Double> bottom = py.add(r).compare(VectorOperators.GT, h).andNot(top);
+            py = py.blend(r, top).blend(h.sub(r), bottom);
+            d = d.blend(d.neg(), top.or(bottom));
+
+            // (d + 360) % 360 for sums in [0, 720); anything else keeps the sum for the scalar pass
+            DoubleVector a = d.add(full);
+            VectorMask<Double> wrap = a.compare(VectorOperators.GE, full).and(a.compare(VectorOperators.LT, twice));
+            a = a.blend(a.sub(full), wrap);
+            px.intoArray(x, i);
+            py.intoArray(y, i);
+            a.intoArray(direction, i);
+        }
+        for (int j = 0; j < bound; j++) {
+            double a = direction[j];
+            if (!(a >= 0 && a < 360)) {
+                direction[j] = a % 360; // Sum outside [0, 720), e.g. a direction set far out of range
+            }
+        }
+        ScalarMotionKernel.integrate(x, y, radius, speed, cos, sin, direction, i, n, width, height);
+    }
+
+    @Override
+    public int overlaps(double px, double py, double pr, double[] x, double[] y, double[] radius, int n, int[] hits) {
+        DoubleVector cx = DoubleVector.broadcast(SPECIES, px);
+        DoubleVector cy = DoubleVector.broadcast(SPECIES, py);
+        DoubleVector cr = DoubleVector.broadcast(SPECIES, pr);
+        int bound = SPECIES.loopBound(n);
+        int found = 0;
+        int j = 0;
+        for (; j < bound; j += SPECIES.length()) {
+            DoubleVector dx = cx.sub(DoubleVector.fromArray(SPECIES, x, j));
+            DoubleVector dy = cy.sub(DoubleVector.fromArray(SPECIES, y, j));
+            DoubleVector distance = dx.mul(dx).add(dy.mul(dy)).lanewise(VectorOperators.SQRT);
+            VectorMask<Double> hit = distance.compare(VectorOperators.LT, cr.add(DoubleVector.fromArray(SPECIES, radius, j)));
+            if (hit.anyTrue()) {
+                for (long bits = hit.toLong(); bits != 0; bits &= bits - 1) {
+                    hits[found++] = j + Long.numberOfTrailingZeros(bits);
+                }
+            }
+        }
+        return ScalarMotionKernel.overlaps(px, py, pr, x, y, radius, j, n, hits, found);
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+}